@@ -20,16 +20,30 @@ import android.view.InputDevice;
 import android.view.InputDevice.MotionRange;
 import android.view.MotionEvent;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.controllers.Controller;
 import com.badlogic.gdx.controllers.ControllerListener;
 import com.badlogic.gdx.controllers.ControllerMapping;
 import com.badlogic.gdx.controllers.ControllerPowerLevel;
+import com.badlogic.gdx.controllers.ControllerState;
+import com.badlogic.gdx.controllers.ListenerRegistry;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntIntMap;
 
+import java.lang.reflect.Method;
 import java.util.UUID;
 
 public class AndroidController implements Controller {
+	// android.hardware.BatteryState, added in API level 31
+	private static final int BATTERY_STATUS_CHARGING = 2;
+	private static final int BATTERY_STATUS_DISCHARGING = 3;
+	private static final int BATTERY_STATUS_NOT_CHARGING = 4;
+	private static final int BATTERY_STATUS_FULL = 5;
+	private static Method getBatteryState;
+	private static Method isBatteryPresent;
+	private static Method getBatteryStatus;
+	private static Method getBatteryCapacity;
+
 	private final int deviceId;
 	private boolean attached;
 	private final String name;
@@ -39,9 +53,10 @@ public class AndroidController implements Controller {
 	protected float povX = 0f;
 	protected float povY = 0f;
 	private boolean povAxis;
-	private final Array<ControllerListener> listeners = new Array<ControllerListener>();
+	protected final ListenerRegistry listeners = new ListenerRegistry();
 	private String uuid;
 	public boolean connected;
+	private volatile ControllerPowerLevel powerLevel = ControllerPowerLevel.POWER_UNKNOWN;
 
 	public AndroidController(int deviceId, String name) {
 		this.deviceId = deviceId;
@@ -96,11 +111,11 @@ public class AndroidController implements Controller {
 
 	@Override
 	public void removeListener (ControllerListener listener) {
-		this.listeners.removeValue(listener, true);
+		this.listeners.remove(listener);
 	}
 	
 	public Array<ControllerListener> getListeners() {
-		return this.listeners;
+		return this.listeners.asArray();
 	}
 
 	@Override
@@ -114,6 +129,17 @@ public class AndroidController implements Controller {
 		return axes[axisIndex];
 	}
 
+	@Override
+	public void readState (ControllerState out) {
+		out.reset(getMaxButtonIndex(), axes.length);
+		IntIntMap.Keys pressed = buttons.keys();
+		while (pressed.hasNext) {
+			out.setButton(pressed.next(), true);
+		}
+		System.arraycopy(axes, 0, out.axes, 0, axes.length);
+		out.connected = connected;
+	}
+
 	@Override
 	public String getName () {
 		return name;
@@ -185,8 +211,59 @@ public class AndroidController implements Controller {
 		return AndroidControllerMapping.getInstance();
 	}
 
+	/**
+	 * @return power level of the last {@link #refreshPowerLevel()}, reported on Android 12 and later
+	 */
 	@Override
 	public ControllerPowerLevel getPowerLevel() {
-		return ControllerPowerLevel.POWER_UNKNOWN;
+		return powerLevel;
+	}
+
+	/**
+	 * Reads the battery state of the device
+	 *
+	 * @return whether the power level changed
+	 */
+	boolean refreshPowerLevel() {
+		ControllerPowerLevel level = queryPowerLevel();
+		if(level == powerLevel) return false;
+		powerLevel = level;
+		return true;
+	}
+
+	private ControllerPowerLevel queryPowerLevel() {
+		if(Gdx.app.getVersion() < 31) return ControllerPowerLevel.POWER_UNKNOWN;
+
+		InputDevice device = InputDevice.getDevice(deviceId);
+		if(device == null) return ControllerPowerLevel.POWER_UNKNOWN;
+
+		try {
+			// called by reflection, the module is compiled against an API level without battery states
+			if(getBatteryState == null) {
+				getBatteryState = InputDevice.class.getMethod("getBatteryState");
+				Class<?> batteryState = getBatteryState.getReturnType();
+				isBatteryPresent = batteryState.getMethod("isPresent");
+				getBatteryStatus = batteryState.getMethod("getStatus");
+				getBatteryCapacity = batteryState.getMethod("getCapacity");
+			}
+
+			Object batteryState = getBatteryState.invoke(device);
+			if(batteryState == null || !(Boolean)isBatteryPresent.invoke(batteryState)) return ControllerPowerLevel.POWER_UNKNOWN;
+
+			switch((Integer)getBatteryStatus.invoke(batteryState)) {
+				case BATTERY_STATUS_CHARGING:
+					return ControllerPowerLevel.POWER_WIRED;
+				case BATTERY_STATUS_FULL:
+					return ControllerPowerLevel.POWER_FULL;
+				case BATTERY_STATUS_DISCHARGING:
+				case BATTERY_STATUS_NOT_CHARGING:
+					float capacity = (Float)getBatteryCapacity.invoke(batteryState);
+					return Float.isNaN(capacity) ? ControllerPowerLevel.POWER_UNKNOWN : ControllerPowerLevel.fromCharge(capacity);
+				default:
+					return ControllerPowerLevel.POWER_UNKNOWN;
+			}
+		} catch(Exception e) {
+			return ControllerPowerLevel.POWER_UNKNOWN;
+		}
 	}
 }
\ No newline at end of file
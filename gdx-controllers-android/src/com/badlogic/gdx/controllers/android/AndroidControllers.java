@@ -27,24 +27,23 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.LifecycleListener;
 import com.badlogic.gdx.backends.android.AndroidInput;
 import com.badlogic.gdx.controllers.AbstractControllerManager;
-import com.badlogic.gdx.controllers.ControllerListener;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.controllers.ControllerEventQueue;
+import com.badlogic.gdx.controllers.ControllerPowerLevel;
+import com.badlogic.gdx.utils.IntIntMap;
 import com.badlogic.gdx.utils.IntMap;
 import com.badlogic.gdx.utils.IntMap.Entry;
-import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.concurrent.Executor;
 
 public class AndroidControllers extends AbstractControllerManager implements LifecycleListener, OnKeyListener, OnGenericMotionListener {
 	private final static String TAG = "AndroidControllers";
+	private final static long POWER_LEVEL_REFRESH_MILLIS = 5000;
 	public static boolean ignoreNoGamepadButtons = true;
 	private final IntMap<AndroidController> controllerMap = new IntMap<AndroidController>();
-	private final Array<ControllerListener> listeners = new Array<ControllerListener>();
-	private final Array<AndroidControllerEvent> eventQueue = new Array<AndroidControllerEvent>();
-	private final Pool<AndroidControllerEvent> eventPool = new Pool<AndroidControllerEvent>() {
-		@Override
-		protected AndroidControllerEvent newObject () {
-			return new AndroidControllerEvent();
-		}
-	};
+	private final ControllerEventQueue eventQueue = new ControllerEventQueue();
+	private boolean dispatchScheduled;
+	private long nextPowerLevelRefresh;
 
 	public AndroidControllers() {
 		listeners.add(new ManageCurrentControllerListener());
@@ -65,72 +64,134 @@ public class AndroidControllers extends AbstractControllerManager implements Lif
 		}
 	}
 	
+	private final Runnable dispatchEvents = new Runnable() {
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public void run () {
+			synchronized(eventQueue) {
+				dispatchScheduled = false;
+				int queueDepth = eventQueue.size();
+				int n = queueDepth;
+				long dispatchStart = TimeUtils.nanoTime();
+				for(int i = 0; i < n; i++) {
+					if(i > 0 && isDispatchTimeBudgetExceeded(dispatchStart)) {
+						n = i;
+						break;
+					}
+					AndroidController controller = (AndroidController)eventQueue.getController(i);
+					int code = eventQueue.getCode(i);
+					long time = eventQueue.getTime(i);
+					long sequence = eventQueue.getSequence(i);
+					switch(eventQueue.getType(i)) {
+						case ControllerEventQueue.CONNECTED:
+							synchronized(controllers) {
+								controllers.add(controller);
+							}
+							listeners.notifyConnected(controller);
+							break;
+						case ControllerEventQueue.DISCONNECTED:
+							synchronized(controllers) {
+								controllers.removeValue(controller, true);
+							}
+							listeners.notifyDisconnected(controller);
+							controller.listeners.notifyDisconnected(controller);
+							break;
+						case ControllerEventQueue.BUTTON_DOWN:
+							controller.buttons.put(code, code);
+							listeners.notifyButtonDown(controller, code, time, sequence);
+							controller.listeners.notifyButtonDown(controller, code, time, sequence);
+							break;
+						case ControllerEventQueue.BUTTON_UP:
+							controller.buttons.remove(code, 0);
+							listeners.notifyButtonUp(controller, code, time, sequence);
+							controller.listeners.notifyButtonUp(controller, code, time, sequence);
+							break;
+						case ControllerEventQueue.AXIS:
+							float value = eventQueue.getValue(i);
+							controller.axes[code] = value;
+							listeners.notifyAxisMoved(controller, code, value, time, sequence);
+							controller.listeners.notifyAxisMoved(controller, code, value, time, sequence);
+							break;
+						default:
+					}
+				}
+				notifyBatchListeners(eventQueue.head(n));
+				eventQueue.removeDispatched(n);
+				publishSnapshots();
+				metrics.recordDispatch(queueDepth, TimeUtils.nanoTime() - dispatchStart);
+			}
+		}
+	};
+
 	private void setupEventQueue() {
 		new Runnable() {
 			@SuppressWarnings("synthetic-access")
 			@Override
 			public void run () {
-				synchronized(eventQueue) {
-					for(AndroidControllerEvent event: eventQueue) {
-						switch(event.type) {
-							case AndroidControllerEvent.CONNECTED:
-								controllers.add(event.controller);
-								for(ControllerListener listener: listeners) {
-									listener.connected(event.controller);
-								}
-								break;
-							case AndroidControllerEvent.DISCONNECTED:
-								controllers.removeValue(event.controller, true);
-								for(ControllerListener listener: listeners) {
-									listener.disconnected(event.controller);
-								}
-								for(ControllerListener listener: event.controller.getListeners()) {
-									listener.disconnected(event.controller);
-								}
-								break;
-							case AndroidControllerEvent.BUTTON_DOWN:
-								event.controller.buttons.put(event.code, event.code);
-								for(ControllerListener listener: listeners) {
-									if(listener.buttonDown(event.controller, event.code)) break;
-								}
-								for(ControllerListener listener: event.controller.getListeners()) {
-									if(listener.buttonDown(event.controller, event.code)) break;
-								}
-								break;
-							case AndroidControllerEvent.BUTTON_UP:
-								event.controller.buttons.remove(event.code, 0);
-								for(ControllerListener listener: listeners) {
-									if(listener.buttonUp(event.controller, event.code)) break;
-								}
-								for(ControllerListener listener: event.controller.getListeners()) {
-									if(listener.buttonUp(event.controller, event.code)) break;
-								}
-								break;
-							case AndroidControllerEvent.AXIS:
-								event.controller.axes[event.code] = event.axisValue;
-								for(ControllerListener listener: listeners) {
-									if(listener.axisMoved(event.controller, event.code, event.axisValue)) break;
-								}
-								for(ControllerListener listener: event.controller.getListeners()) {
-									if(listener.axisMoved(event.controller, event.code, event.axisValue)) break;
-								}
-								break;
-							default:
-						}
+				if(getDispatchExecutor() == null) {
+					dispatchEvents.run();
+				} else {
+					synchronized(eventQueue) {
+						scheduleDispatch();
 					}
-					eventPool.freeAll(eventQueue);
-					eventQueue.clear();
+				}
+				// batteries drain slowly, no need to query them every frame
+				if(!isSuspended() && TimeUtils.millis() >= nextPowerLevelRefresh) {
+					nextPowerLevelRefresh = TimeUtils.millis() + POWER_LEVEL_REFRESH_MILLIS;
+					refreshPowerLevels();
 				}
 				Gdx.app.postRunnable(this);
 			}
 		}.run();
 	}
+
+	private void refreshPowerLevels() {
+		synchronized(controllers) {
+			for(int i = 0; i < controllers.size; i++) {
+				final AndroidController controller = (AndroidController)controllers.get(i);
+				if(!controller.refreshPowerLevel()) continue;
+
+				final ControllerPowerLevel powerLevel = controller.getPowerLevel();
+				Executor executor = getDispatchExecutor();
+				if(executor == null) {
+					notifyPowerLevelChanged(controller, powerLevel);
+				} else {
+					executor.execute(new Runnable() {
+						@Override
+						public void run () {
+							notifyPowerLevelChanged(controller, powerLevel);
+						}
+					});
+				}
+			}
+		}
+	}
+
+	private void notifyPowerLevelChanged(AndroidController controller, ControllerPowerLevel powerLevel) {
+		listeners.notifyPowerLevelChanged(controller, powerLevel);
+		controller.listeners.notifyPowerLevelChanged(controller, powerLevel);
+	}
+
+	/**
+	 * Hands queued events to the dispatch executor, if one is set. Must be called holding the lock of
+	 * the event queue.
+	 */
+	private void scheduleDispatch() {
+		Executor executor = getDispatchExecutor();
+		if(executor != null && !dispatchScheduled && !eventQueue.isEmpty()) {
+			dispatchScheduled = true;
+			executor.execute(dispatchEvents);
+		}
+	}
 	
 	@Override
 	public boolean onGenericMotion (View view, MotionEvent motionEvent) {
 		if((motionEvent.getSource() & InputDevice.SOURCE_CLASS_JOYSTICK) == 0) return false;
+		if(isSuspended()) return false;
 		AndroidController controller = controllerMap.get(motionEvent.getDeviceId());
 		if(controller != null) {
+			// event times are in uptime milliseconds, which shares its clock with System.nanoTime()
+			long time = motionEvent.getEventTime() * 1000000L;
 			synchronized(eventQueue) {
 				if (controller.hasPovAxis()) {
 					float povX = motionEvent.getAxisValue(MotionEvent.AXIS_HAT_X);
@@ -138,62 +199,30 @@ public class AndroidControllers extends AbstractControllerManager implements Lif
 					// map axis movement to dpad buttons
 					if (povX != controller.povX) {
 						if (controller.povX == 1f) {
-							AndroidControllerEvent event = eventPool.obtain();
-							event.controller = controller;
-							event.type = AndroidControllerEvent.BUTTON_UP;
-							event.code = KeyEvent.KEYCODE_DPAD_RIGHT;
-							eventQueue.add(event);
+							eventQueue.addButton(controller, KeyEvent.KEYCODE_DPAD_RIGHT, false, time);
 						} else if (controller.povX == -1f) {
-							AndroidControllerEvent event = eventPool.obtain();
-							event.controller = controller;
-							event.type = AndroidControllerEvent.BUTTON_UP;
-							event.code = KeyEvent.KEYCODE_DPAD_LEFT;
-							eventQueue.add(event);
+							eventQueue.addButton(controller, KeyEvent.KEYCODE_DPAD_LEFT, false, time);
 						}
 
 						if (povX == 1f) {
-							AndroidControllerEvent event = eventPool.obtain();
-							event.controller = controller;
-							event.type = AndroidControllerEvent.BUTTON_DOWN;
-							event.code = KeyEvent.KEYCODE_DPAD_RIGHT;
-							eventQueue.add(event);
+							eventQueue.addButton(controller, KeyEvent.KEYCODE_DPAD_RIGHT, true, time);
 						} else if (povX == -1f) {
-							AndroidControllerEvent event = eventPool.obtain();
-							event.controller = controller;
-							event.type = AndroidControllerEvent.BUTTON_DOWN;
-							event.code = KeyEvent.KEYCODE_DPAD_LEFT;
-							eventQueue.add(event);
+							eventQueue.addButton(controller, KeyEvent.KEYCODE_DPAD_LEFT, true, time);
 						}
 						controller.povX = povX;
 					}
 
 					if (povY != controller.povY) {
 						if (controller.povY == 1f) {
-							AndroidControllerEvent event = eventPool.obtain();
-							event.controller = controller;
-							event.type = AndroidControllerEvent.BUTTON_UP;
-							event.code = KeyEvent.KEYCODE_DPAD_DOWN;
-							eventQueue.add(event);
+							eventQueue.addButton(controller, KeyEvent.KEYCODE_DPAD_DOWN, false, time);
 						} else if (controller.povY == -1f) {
-							AndroidControllerEvent event = eventPool.obtain();
-							event.controller = controller;
-							event.type = AndroidControllerEvent.BUTTON_UP;
-							event.code = KeyEvent.KEYCODE_DPAD_UP;
-							eventQueue.add(event);
+							eventQueue.addButton(controller, KeyEvent.KEYCODE_DPAD_UP, false, time);
 						}
 
 						if (povY == 1f) {
-							AndroidControllerEvent event = eventPool.obtain();
-							event.controller = controller;
-							event.type = AndroidControllerEvent.BUTTON_DOWN;
-							event.code = KeyEvent.KEYCODE_DPAD_DOWN;
-							eventQueue.add(event);
+							eventQueue.addButton(controller, KeyEvent.KEYCODE_DPAD_DOWN, true, time);
 						} else if (povY == -1f) {
-							AndroidControllerEvent event = eventPool.obtain();
-							event.controller = controller;
-							event.type = AndroidControllerEvent.BUTTON_DOWN;
-							event.code = KeyEvent.KEYCODE_DPAD_UP;
-							eventQueue.add(event);
+							eventQueue.addButton(controller, KeyEvent.KEYCODE_DPAD_UP, true, time);
 						}
 						controller.povY = povY;
 
@@ -207,14 +236,10 @@ public class AndroidControllers extends AbstractControllerManager implements Lif
 						axisIndex++;
 						continue;
 					}
-					AndroidControllerEvent event = eventPool.obtain();
-					event.type = AndroidControllerEvent.AXIS;
-					event.controller = controller;
-					event.code = axisIndex;
-					event.axisValue = axisValue;
-					eventQueue.add(event);
+					eventQueue.addAxis(controller, axisIndex, axisValue, time);
 					axisIndex++;
 				}
+				scheduleDispatch();
 			}
 			return true;
 		}
@@ -226,21 +251,18 @@ public class AndroidControllers extends AbstractControllerManager implements Lif
 		if (ignoreNoGamepadButtons && !KeyEvent.isGamepadButton(keyCode)) {
 			return false;
 		}
+		if (isSuspended()) {
+			return false;
+		}
 		AndroidController controller = controllerMap.get(keyEvent.getDeviceId());
 		if(controller != null) {
 			if(controller.getButton(keyCode) && keyEvent.getAction() == KeyEvent.ACTION_DOWN) {
 				return true;
 			}
 			synchronized(eventQueue) {
-				AndroidControllerEvent event = eventPool.obtain();
-				event.controller = controller;
-				if(keyEvent.getAction() == KeyEvent.ACTION_DOWN) {
-					event.type = AndroidControllerEvent.BUTTON_DOWN;
-				} else {
-					event.type = AndroidControllerEvent.BUTTON_UP;
-				}
-				event.code = keyCode;
-				eventQueue.add(event);
+				eventQueue.addButton(controller, keyCode, keyEvent.getAction() == KeyEvent.ACTION_DOWN,
+					keyEvent.getEventTime() * 1000000L);
+				scheduleDispatch();
 			}
 			return keyCode != KeyEvent.KEYCODE_BACK || Gdx.input.isCatchBackKey();
 		} else {
@@ -277,13 +299,13 @@ public class AndroidControllers extends AbstractControllerManager implements Lif
 			controllerMap.put(deviceId, controller);
 			if (sendEvent) {
 				synchronized (eventQueue) {
-					AndroidControllerEvent event = eventPool.obtain();
-					event.type = AndroidControllerEvent.CONNECTED;
-					event.controller = controller;
-					eventQueue.add(event);
+					eventQueue.addConnected(controller);
+					scheduleDispatch();
 				}
 			} else {
-				controllers.add(controller);
+				synchronized(controllers) {
+					controllers.add(controller);
+				}
 			}
 			Gdx.app.log(TAG, "added controller '" + name + "'");
 		} catch (RuntimeException e) {
@@ -298,11 +320,9 @@ public class AndroidControllers extends AbstractControllerManager implements Lif
 		AndroidController controller = controllerMap.remove(deviceId);
 		if(controller != null) {
 			synchronized(eventQueue) {
-				AndroidControllerEvent event = eventPool.obtain();
 				controller.connected = false;
-				event.type = AndroidControllerEvent.DISCONNECTED;
-				event.controller = controller;
-				eventQueue.add(event);
+				eventQueue.addDisconnected(controller);
+				scheduleDispatch();
 			}
 			Gdx.app.log(TAG, "removed controller '" + controller.getName() + "'");
 		}
@@ -315,42 +335,68 @@ public class AndroidControllers extends AbstractControllerManager implements Lif
 	}
 
 	@Override
-	public void addListener (ControllerListener listener) {
+	public void setCoalesceAxisEvents (boolean coalesceAxisEvents) {
+		super.setCoalesceAxisEvents(coalesceAxisEvents);
 		synchronized(eventQueue) {
-			listeners.add(listener);
+			eventQueue.setCoalesceAxisEvents(coalesceAxisEvents);
 		}
 	}
 
 	@Override
-	public void removeListener (ControllerListener listener) {
+	public void setMaxQueuedAxisEvents (int maxQueuedAxisEvents) {
+		super.setMaxQueuedAxisEvents(maxQueuedAxisEvents);
 		synchronized(eventQueue) {
-			listeners.removeValue(listener, true);
+			eventQueue.setMaxAxisEvents(maxQueuedAxisEvents);
 		}
 	}
 
 	@Override
-	public void pause () {
-		Gdx.app.log(TAG, "controllers paused");
+	public long getDroppedEventCount () {
+		synchronized(eventQueue) {
+			return eventQueue.getDroppedCount();
+		}
 	}
 
 	@Override
-	public void resume () {
-		gatherControllers(true);
-		Gdx.app.log(TAG, "controllers resumed");		
+	public long getDeferredEventCount () {
+		synchronized(eventQueue) {
+			return eventQueue.getDeferredCount();
+		}
 	}
 
+	/**
+	 * Android doesn't keep the state of input devices, so all buttons pressed before suspending are
+	 * reported released. Buttons still held are reported pressed again with their next event.
+	 */
 	@Override
-	public void dispose () {
+	protected void resumePolling () {
+		long time = TimeUtils.nanoTime();
+		synchronized(eventQueue) {
+			for(AndroidController controller: controllerMap.values()) {
+				for(IntIntMap.Keys pressed = controller.buttons.keys(); pressed.hasNext;) {
+					eventQueue.addButton(controller, pressed.next(), false, time);
+				}
+				controller.povX = 0;
+				controller.povY = 0;
+			}
+			scheduleDispatch();
+		}
 	}
 
 	@Override
-	public void clearListeners () {
-		listeners.clear();
-		listeners.add(new ManageCurrentControllerListener());
+	public void pause () {
+		setLifecyclePaused(true);
+		Gdx.app.log(TAG, "controllers paused");
 	}
 
 	@Override
-	public Array<ControllerListener> getListeners () {
-		return listeners;
+	public void resume () {
+		gatherControllers(true);
+		setLifecyclePaused(false);
+		Gdx.app.log(TAG, "controllers resumed");		
+	}
+
+	@Override
+	public void dispose () {
 	}
 }
\ No newline at end of file
@@ -1,88 +1,189 @@
 package com.badlogic.gdx.controllers;
 
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.TimeUtils;
 
 /**
  * AbstractController to be used by new Controller implementations. Provides listener notification
  * implementations and default return values
  */
 abstract class AbstractController implements Disposable, Controller {
-	private final Array<ControllerListener> listeners = new Array<>();
+	private final ListenerRegistry listeners = new ListenerRegistry();
 	private boolean connected = true;
+	private ControllerPowerLevel powerLevel = ControllerPowerLevel.POWER_UNKNOWN;
+
+	// axis values waiting for the end of the frame when the manager coalesces axis events
+	private float[] pendingAxisValues = new float[0];
+	private long[] pendingAxisTimes = new long[0];
+	private long[] pendingAxisSequences = new long[0];
+	private boolean[] pendingAxes = new boolean[0];
+	private boolean pendingAxesPosted;
+	private final Runnable dispatchPendingAxes = new Runnable() {
+		@Override
+		public void run() {
+			pendingAxesPosted = false;
+			dispatchPendingAxes();
+		}
+	};
 
 	@Override
 	public void dispose() {
-		synchronized (listeners) {
-			listeners.clear();
-		}
+		listeners.clear();
+		pendingAxisValues = new float[0];
+		pendingAxisTimes = new long[0];
+		pendingAxisSequences = new long[0];
+		pendingAxes = new boolean[0];
 		connected = false;
 	}
 
+	/**
+	 * @return power level of the last {@link #refreshPowerLevel()}
+	 */
+	@Override
+	public ControllerPowerLevel getPowerLevel() {
+		return powerLevel;
+	}
+
+	/**
+	 * Reads the power level from the platform, called by the manager on a slow schedule
+	 */
+	protected ControllerPowerLevel queryPowerLevel() {
+		return ControllerPowerLevel.POWER_UNKNOWN;
+	}
+
+	/**
+	 * Caches the power level and notifies {@link ControllerPowerLevelListener}s if it changed
+	 */
+	void refreshPowerLevel() {
+		ControllerPowerLevel level = queryPowerLevel();
+		if (level == powerLevel)
+			return;
+
+		powerLevel = level;
+		ListenerRegistry managerListeners = Controllers.getListenerRegistry();
+		if (managerListeners != null)
+			managerListeners.notifyPowerLevelChanged(this, level);
+		listeners.notifyPowerLevelChanged(this, level);
+	}
+
 	protected void notifyListenersButtonUp(int button) {
-		Array<ControllerListener> managerListeners = Controllers.getListeners();
-		synchronized (managerListeners) {
-			for (ControllerListener listener : managerListeners) {
-				if (listener.buttonUp(this, button))
-					break;
-			}
+		dispatchPendingAxes();
+		long time = TimeUtils.nanoTime();
+		long sequence = ControllerEvents.nextSequence();
+		AbstractControllerManager manager = Controllers.getAbstractManager();
+		if (manager != null) {
+			manager.requestSnapshotPublish();
+			manager.getListenerRegistry().notifyButtonUp(this, button, time, sequence);
 		}
 
-		synchronized (this.listeners) {
-			for (ControllerListener listener : this.listeners) {
-				if (listener.buttonUp(this, button))
-					break;
-			}
-		}
-    }
+		listeners.notifyButtonUp(this, button, time, sequence);
+	}
 
 	protected void notifyListenersButtonDown(int button) {
-		Array<ControllerListener> managerListeners = Controllers.getListeners();
-		synchronized (managerListeners) {
-			for (ControllerListener listener : managerListeners) {
-				if (listener.buttonDown(this, button))
-					break;
-			}
+		dispatchPendingAxes();
+		long time = TimeUtils.nanoTime();
+		long sequence = ControllerEvents.nextSequence();
+		AbstractControllerManager manager = Controllers.getAbstractManager();
+		if (manager != null) {
+			manager.requestSnapshotPublish();
+			manager.getListenerRegistry().notifyButtonDown(this, button, time, sequence);
 		}
 
-		synchronized (listeners) {
-			for (ControllerListener listener : listeners) {
-				if (listener.buttonDown(this, button))
-					break;
-			}
-		}
-    }
+		listeners.notifyButtonDown(this, button, time, sequence);
+	}
 
 	protected void notifyListenersAxisMoved(int axisNum, float value) {
-		Array<ControllerListener> managerListeners = Controllers.getListeners();
-		synchronized (managerListeners) {
-			for (ControllerListener listener : managerListeners) {
-				if (listener.axisMoved(this, axisNum, value))
-					break;
-			}
+		long time = TimeUtils.nanoTime();
+		long sequence = ControllerEvents.nextSequence();
+		AbstractControllerManager manager = Controllers.getAbstractManager();
+		if (manager != null)
+			manager.requestSnapshotPublish();
+		if (manager != null && manager.isCoalesceAxisEvents()) {
+			queueAxisMoved(axisNum, value, time, sequence);
+			return;
 		}
 
-		synchronized (listeners) {
-			for (ControllerListener listener : listeners) {
-				if (listener.axisMoved(this, axisNum, value))
-					break;
-			}
+		if (manager != null)
+			manager.getListenerRegistry().notifyAxisMoved(this, axisNum, value, time, sequence);
+
+		listeners.notifyAxisMoved(this, axisNum, value, time, sequence);
+	}
+
+	/**
+	 * Keeps the axis value until the end of the frame, overwriting a value not yet dispatched
+	 */
+	private void queueAxisMoved(int axisNum, float value, long time, long sequence) {
+		if (axisNum >= pendingAxes.length) {
+			float[] newValues = new float[axisNum + 1];
+			long[] newTimes = new long[axisNum + 1];
+			long[] newSequences = new long[axisNum + 1];
+			boolean[] newPending = new boolean[axisNum + 1];
+			System.arraycopy(pendingAxisValues, 0, newValues, 0, pendingAxisValues.length);
+			System.arraycopy(pendingAxisTimes, 0, newTimes, 0, pendingAxisTimes.length);
+			System.arraycopy(pendingAxisSequences, 0, newSequences, 0, pendingAxisSequences.length);
+			System.arraycopy(pendingAxes, 0, newPending, 0, pendingAxes.length);
+			pendingAxisValues = newValues;
+			pendingAxisTimes = newTimes;
+			pendingAxisSequences = newSequences;
+			pendingAxes = newPending;
+		}
+
+		pendingAxisValues[axisNum] = value;
+		pendingAxisTimes[axisNum] = time;
+		pendingAxisSequences[axisNum] = sequence;
+		pendingAxes[axisNum] = true;
+		if (!pendingAxesPosted) {
+			pendingAxesPosted = true;
+			Gdx.app.postRunnable(dispatchPendingAxes);
+		}
+	}
+
+	/**
+	 * Dispatches coalesced axis values. Called before button events so listeners see axis and button
+	 * changes in the order they happened.
+	 */
+	private void dispatchPendingAxes() {
+		ListenerRegistry managerListeners = null;
+		for (int axisNum = 0; axisNum < pendingAxes.length; axisNum++) {
+			if (!pendingAxes[axisNum])
+				continue;
+
+			pendingAxes[axisNum] = false;
+			float value = pendingAxisValues[axisNum];
+			long time = pendingAxisTimes[axisNum];
+			long sequence = pendingAxisSequences[axisNum];
+			if (managerListeners == null)
+				managerListeners = Controllers.getListenerRegistry();
+			if (managerListeners != null)
+				managerListeners.notifyAxisMoved(this, axisNum, value, time, sequence);
+
+			listeners.notifyAxisMoved(this, axisNum, value, time, sequence);
 		}
 	}
 
 	@Override
 	public void addListener(ControllerListener controllerListener) {
-		synchronized (listeners) {
-			if (!listeners.contains(controllerListener, true))
-				listeners.add(controllerListener);
-		}
+		listeners.add(controllerListener);
 	}
 
 	@Override
 	public void removeListener(ControllerListener controllerListener) {
-		synchronized (listeners) {
-			listeners.removeValue(controllerListener, true);
+		listeners.remove(controllerListener);
+	}
+
+	@Override
+	public void readState(ControllerState out) {
+		int maxButtonIndex = getMaxButtonIndex();
+		int axisCount = getAxisCount();
+		out.reset(maxButtonIndex, axisCount);
+		for (int i = getMinButtonIndex(); i <= maxButtonIndex; i++) {
+			if (getButton(i))
+				out.setButton(i, true);
 		}
+		for (int i = 0; i < axisCount; i++)
+			out.axes[i] = getAxis(i);
+		out.connected = isConnected();
 	}
 
 	// methods from advanced interface that are not supported by most controllers
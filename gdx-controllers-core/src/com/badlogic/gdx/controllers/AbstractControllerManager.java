@@ -1,11 +1,47 @@
 package com.badlogic.gdx.controllers;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.concurrent.Executor;
 
 public abstract class AbstractControllerManager implements ControllerManager {
     protected final Array<Controller> controllers = new Array<>();
-    private Controller currentController;
+    protected final ListenerRegistry listeners = new ListenerRegistry();
+    protected final ControllerMetrics metrics = new ControllerMetrics();
+    private volatile Controller currentController;
+    private volatile Executor dispatchExecutor;
+    private boolean coalesceAxisEvents;
+    private int maxQueuedAxisEvents;
+    private long dispatchTimeBudgetNanos;
+    // requested by the application and by the platform lifecycle, input is suspended while either is set
+    private volatile boolean suspended;
+    private volatile boolean lifecyclePaused;
+    private final IdentityMap<Controller, ControllerButtonEdges> buttonEdges = new IdentityMap<>();
+
+    private volatile ControllerBatchListener[] batchListeners = new ControllerBatchListener[0];
+
+    private boolean publishSnapshots;
+    private volatile ControllerSnapshot[] snapshots = new ControllerSnapshot[0];
+    private final Array<ControllerSnapshot> nextSnapshots = new Array<>();
+    private final ControllerState snapshotState = new ControllerState();
+    private boolean snapshotPublishPosted;
+    private final Runnable publishSnapshotsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            snapshotPublishPosted = false;
+            publishSnapshots();
+        }
+    };
 
+    /**
+     * The returned array is modified when controllers connect or disconnect. This happens on the
+     * thread dispatching events: the rendering thread by default, or the thread of the
+     * {@link #setDispatchExecutor(Executor) dispatch executor}. Modifications are synchronized on the
+     * array, so other threads have to synchronize on it while iterating.
+     */
     @Override
     public Array<Controller> getControllers () {
         return controllers;
@@ -16,13 +52,361 @@ public abstract class AbstractControllerManager implements ControllerManager {
         return currentController;
     }
 
+    @Override
+    public void addListener(ControllerListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(ControllerListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public Array<ControllerListener> getListeners() {
+        return listeners.asArray();
+    }
+
+    @Override
+    public void clearListeners() {
+        listeners.clear();
+        listeners.add(new ManageCurrentControllerListener());
+    }
+
+    /**
+     * Sets the executor listeners are notified on. By default, or when set to null, events are
+     * dispatched on the rendering thread once per frame. With an executor, events are handed to it
+     * as soon as they are received, without waiting for the next frame. A single dispatch task is
+     * scheduled at a time and processes all queued events in order, so events stay strictly ordered
+     * even on an executor with multiple threads.
+     * <p>
+     * Listeners, batch listeners and snapshot publishing then run on the executor's threads.
+     * {@link #isButtonJustPressed(Controller, int)} and {@link #getSnapshot(Controller)} may still be
+     * used on the rendering thread. Only supported by implementations receiving events asynchronously
+     * from the platform, others keep dispatching on the rendering thread.
+     *
+     * @param dispatchExecutor executor to run listeners on, e.g. {@code Executors.newSingleThreadExecutor()}
+     *                         for a dedicated input thread, or null to dispatch on the rendering thread
+     */
+    public void setDispatchExecutor(Executor dispatchExecutor) {
+        this.dispatchExecutor = dispatchExecutor;
+    }
+
+    public Executor getDispatchExecutor() {
+        return dispatchExecutor;
+    }
+
+    /**
+     * Enables or disables axis event coalescing. When enabled, axis events of the same controller and
+     * axis produced within one frame are merged, and listeners only receive the latest value. Button
+     * events are not affected and keep their order. Disabled by default.
+     */
+    public void setCoalesceAxisEvents(boolean coalesceAxisEvents) {
+        this.coalesceAxisEvents = coalesceAxisEvents;
+    }
+
+    public boolean isCoalesceAxisEvents() {
+        return coalesceAxisEvents;
+    }
+
+    /**
+     * Bounds the number of axis events waiting for dispatch. When exceeded, the oldest queued axis
+     * event superseded by a newer one of the same controller and axis is dropped. The latest value of
+     * an axis and connection and button events are never dropped. Only supported by implementations
+     * queueing events, see {@link #getDroppedEventCount()}.
+     *
+     * @param maxQueuedAxisEvents maximum number of queued axis events, 0 for no limit (the default)
+     */
+    public void setMaxQueuedAxisEvents(int maxQueuedAxisEvents) {
+        this.maxQueuedAxisEvents = Math.max(0, maxQueuedAxisEvents);
+    }
+
+    public int getMaxQueuedAxisEvents() {
+        return maxQueuedAxisEvents;
+    }
+
+    /**
+     * Limits the time spent notifying listeners per dispatch. Events not dispatched within the budget
+     * stay queued, in order, for the next frame. At least one event is dispatched every time, so the
+     * queue always makes progress.
+     *
+     * @param dispatchTimeBudgetNanos budget in nanoseconds, 0 for no limit (the default)
+     */
+    public void setDispatchTimeBudget(long dispatchTimeBudgetNanos) {
+        this.dispatchTimeBudgetNanos = Math.max(0, dispatchTimeBudgetNanos);
+    }
+
+    public long getDispatchTimeBudget() {
+        return dispatchTimeBudgetNanos;
+    }
+
+    /**
+     * @return whether a dispatch started at the given {@link TimeUtils#nanoTime()} exhausted its
+     * budget, see {@link #setDispatchTimeBudget(long)}
+     */
+    protected boolean isDispatchTimeBudgetExceeded(long dispatchStartNanos) {
+        return dispatchTimeBudgetNanos > 0 && TimeUtils.nanoTime() - dispatchStartNanos >= dispatchTimeBudgetNanos;
+    }
+
+    /**
+     * Suspends or resumes input handling. While suspended, controllers are not polled and no input
+     * events are generated, only connections and disconnections are still tracked, at a low rate
+     * where they are polled. On resume, the controller states are reconciled once, so buttons released
+     * while suspended are reported released. Implementations also suspend while the application is
+     * paused or minimized, see {@link #setLifecyclePaused(boolean)}; call this e.g. when the window
+     * loses focus to suspend in that case too. The two are tracked separately, so resuming the
+     * application doesn't undo this call, and this call doesn't resume a paused application.
+     */
+    public void setSuspended(boolean suspended) {
+        boolean wasSuspended = isSuspended();
+        this.suspended = suspended;
+        updateSuspended(wasSuspended);
+    }
+
+    /**
+     * @return whether input handling is suspended, by {@link #setSuspended(boolean)} or because the
+     * application is paused
+     */
+    public boolean isSuspended() {
+        return suspended || lifecyclePaused;
+    }
+
+    /**
+     * Suspends input handling while the application is paused, called by implementations from their
+     * {@link com.badlogic.gdx.LifecycleListener}. Independent of {@link #setSuspended(boolean)}.
+     */
+    protected void setLifecyclePaused(boolean paused) {
+        boolean wasSuspended = isSuspended();
+        lifecyclePaused = paused;
+        updateSuspended(wasSuspended);
+    }
+
+    private void updateSuspended(boolean wasSuspended) {
+        boolean suspended = isSuspended();
+        if (suspended == wasSuspended)
+            return;
+
+        if (suspended)
+            suspendPolling();
+        else
+            resumePolling();
+    }
+
+    /**
+     * Called when input handling is suspended, see {@link #setSuspended(boolean)}
+     */
+    protected void suspendPolling() {
+    }
+
+    /**
+     * Called when input handling is resumed, implementations reconcile the controller states here, see
+     * {@link #setSuspended(boolean)}
+     */
+    protected void resumePolling() {
+    }
+
+    /**
+     * @return number of axis events dropped because of {@link #setMaxQueuedAxisEvents(int)}
+     */
+    public long getDroppedEventCount() {
+        return 0;
+    }
+
     /**
-     * Manages currentController field. Must be added to controller listeners as first listener
+     * @return number of times an event was left for a later dispatch because of
+     * {@link #setDispatchTimeBudget(long)}
+     */
+    public long getDeferredEventCount() {
+        return 0;
+    }
+
+    /**
+     * @return true if the button was pressed since the previous frame. Must be called on the rendering
+     * thread. A button pressed and released within one frame reports true for both
+     * {@link #isButtonJustPressed(Controller, int)} and {@link #isButtonJustReleased(Controller, int)}.
+     */
+    public boolean isButtonJustPressed(Controller controller, int buttonCode) {
+        synchronized (buttonEdges) {
+            ControllerButtonEdges edges = buttonEdges.get(controller);
+            return edges != null && edges.isJustPressed(buttonCode, Gdx.graphics.getFrameId());
+        }
+    }
+
+    /**
+     * @return true if the button was released since the previous frame. Must be called on the rendering
+     * thread.
+     */
+    public boolean isButtonJustReleased(Controller controller, int buttonCode) {
+        synchronized (buttonEdges) {
+            ControllerButtonEdges edges = buttonEdges.get(controller);
+            return edges != null && edges.isJustReleased(buttonCode, Gdx.graphics.getFrameId());
+        }
+    }
+
+    private void recordButtonEdge(Controller controller, int buttonCode, boolean down) {
+        synchronized (buttonEdges) {
+            ControllerButtonEdges edges = buttonEdges.get(controller);
+            if (edges == null) {
+                edges = new ControllerButtonEdges();
+                buttonEdges.put(controller, edges);
+            }
+            edges.record(buttonCode, down, Gdx.graphics.getFrameId());
+        }
+    }
+
+    /**
+     * Adds a listener receiving all events of a frame at once. Only supported by implementations
+     * collecting events in a queue, see {@link #notifyBatchListeners(ControllerEventBatch)}.
+     */
+    public synchronized void addBatchListener(ControllerBatchListener listener) {
+        ControllerBatchListener[] current = batchListeners;
+        for (ControllerBatchListener batchListener : current) {
+            if (batchListener == listener)
+                return;
+        }
+
+        ControllerBatchListener[] copy = new ControllerBatchListener[current.length + 1];
+        System.arraycopy(current, 0, copy, 0, current.length);
+        copy[current.length] = listener;
+        batchListeners = copy;
+    }
+
+    public synchronized void removeBatchListener(ControllerBatchListener listener) {
+        ControllerBatchListener[] current = batchListeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                ControllerBatchListener[] copy = new ControllerBatchListener[current.length - 1];
+                System.arraycopy(current, 0, copy, 0, i);
+                System.arraycopy(current, i + 1, copy, i, current.length - i - 1);
+                batchListeners = copy;
+                return;
+            }
+        }
+    }
+
+    protected boolean hasBatchListeners() {
+        return batchListeners.length > 0;
+    }
+
+    /**
+     * Hands the events of a frame to the batch listeners. Called by implementations on the rendering
+     * thread after the events were dispatched to the regular listeners.
+     */
+    protected void notifyBatchListeners(ControllerEventBatch batch) {
+        if (batch.size() == 0)
+            return;
+
+        for (ControllerBatchListener listener : batchListeners)
+            listener.eventsReceived(batch);
+    }
+
+    /**
+     * Enables publishing of {@link ControllerSnapshot}s. When enabled, the state of every controller is
+     * captured at the end of each poll, and a new snapshot is published for every controller whose
+     * state changed. Disabled by default.
+     */
+    public void setPublishSnapshots(boolean publishSnapshots) {
+        this.publishSnapshots = publishSnapshots;
+        if (!publishSnapshots)
+            snapshots = new ControllerSnapshot[0];
+    }
+
+    public boolean isPublishSnapshots() {
+        return publishSnapshots;
+    }
+
+    /**
+     * May be called from any thread, the returned snapshot is immutable.
+     *
+     * @return latest published state of the controller, or null if none was published yet or
+     * {@link #setPublishSnapshots(boolean)} is disabled
+     */
+    public ControllerSnapshot getSnapshot(Controller controller) {
+        for (ControllerSnapshot snapshot : snapshots) {
+            if (snapshot.getController() == controller)
+                return snapshot;
+        }
+        return null;
+    }
+
+    /**
+     * May be called from any thread.
+     *
+     * @return latest published snapshots of all connected controllers. The array must not be modified.
+     */
+    public ControllerSnapshot[] getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Captures the state of all controllers and publishes the changed ones. Called by implementations
+     * on the rendering thread at the end of every poll.
+     */
+    protected void publishSnapshots() {
+        if (!publishSnapshots)
+            return;
+
+        ControllerSnapshot[] current = snapshots;
+        boolean changed = current.length != controllers.size;
+        nextSnapshots.clear();
+        for (int i = 0; i < controllers.size; i++) {
+            Controller controller = controllers.get(i);
+            controller.readState(snapshotState);
+
+            ControllerSnapshot snapshot = i < current.length && current[i].getController() == controller
+                    ? current[i] : getSnapshot(controller);
+            if (snapshot == null || !snapshot.equalsState(snapshotState)) {
+                snapshot = new ControllerSnapshot(controller, snapshot == null ? 1 : snapshot.getVersion() + 1,
+                        snapshotState);
+                changed = true;
+            } else if (i >= current.length || current[i] != snapshot) {
+                changed = true;
+            }
+            nextSnapshots.add(snapshot);
+        }
+
+        if (changed) {
+            ControllerSnapshot[] published = new ControllerSnapshot[nextSnapshots.size];
+            for (int i = 0; i < published.length; i++)
+                published[i] = nextSnapshots.get(i);
+            snapshots = published;
+        }
+        nextSnapshots.clear();
+    }
+
+    /**
+     * Schedules {@link #publishSnapshots()} for the end of the frame, for implementations without a
+     * poll of their own. Multiple requests within a frame result in one publish.
+     */
+    protected void requestSnapshotPublish() {
+        if (publishSnapshots && !snapshotPublishPosted) {
+            snapshotPublishPosted = true;
+            Gdx.app.postRunnable(publishSnapshotsRunnable);
+        }
+    }
+
+    /**
+     * @return counters and timings of this manager's event pipeline
+     */
+    public ControllerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return registry backing {@link #getListeners()}, notified for events of all controllers
+     */
+    public ListenerRegistry getListenerRegistry() {
+        return listeners;
+    }
+
+    /**
+     * Manages currentController field, the button edges and the event counts of the metrics. Must be added to controller listeners as first listener
      */
     public class ManageCurrentControllerListener extends ControllerAdapter {
 
         @Override
         public void connected(Controller controller) {
+            metrics.recordEvent(ControllerEventQueue.CONNECTED);
             if (currentController == null) {
                 currentController = controller;
             }
@@ -30,25 +414,35 @@ public abstract class AbstractControllerManager implements ControllerManager {
 
         @Override
         public void disconnected(Controller controller) {
+            metrics.recordEvent(ControllerEventQueue.DISCONNECTED);
+            metrics.removeController(controller);
             if (currentController == controller) {
                 currentController = null;
             }
+            synchronized (buttonEdges) {
+                buttonEdges.remove(controller);
+            }
         }
 
         @Override
         public boolean buttonDown(Controller controller, int buttonIndex) {
+            metrics.recordEvent(ControllerEventQueue.BUTTON_DOWN);
             currentController = controller;
+            recordButtonEdge(controller, buttonIndex, true);
             return false;
         }
 
         @Override
         public boolean buttonUp(Controller controller, int buttonIndex) {
+            metrics.recordEvent(ControllerEventQueue.BUTTON_UP);
             currentController = controller;
+            recordButtonEdge(controller, buttonIndex, false);
             return false;
         }
 
         @Override
         public boolean axisMoved(Controller controller, int axisIndex, float value) {
+            metrics.recordEvent(ControllerEventQueue.AXIS);
             currentController = controller;
             return false;
         }
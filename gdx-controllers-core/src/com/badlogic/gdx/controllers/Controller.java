@@ -35,6 +35,10 @@ public interface Controller {
 	 * @return the value of the axis, between -1 and 1 */
 	public float getAxis (int axisCode);
 
+	/** Reads all buttons and axes in one call, which is cheaper than querying them one by one on most backends.
+	 * @param out receives the state, its arrays are grown if needed */
+	public void readState (ControllerState out);
+
 	/** @return the device name */
 	public String getName ();
 
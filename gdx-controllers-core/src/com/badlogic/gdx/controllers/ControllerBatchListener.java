@@ -0,0 +1,14 @@
+package com.badlogic.gdx.controllers;
+
+/**
+ * Receives all controller events of a frame at once, for consumers processing input in bulk.
+ * Registered with {@link Controllers#addBatchListener(ControllerBatchListener)}. Batch listeners are
+ * notified on the dispatching thread after the regular {@link ControllerListener}s and can't consume
+ * events, see {@link AbstractControllerManager#setDispatchExecutor(java.util.concurrent.Executor)}.
+ */
+public interface ControllerBatchListener {
+	/**
+	 * @param batch the events, only valid during this call
+	 */
+	public void eventsReceived (ControllerEventBatch batch);
+}
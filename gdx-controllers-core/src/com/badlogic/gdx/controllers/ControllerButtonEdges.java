@@ -0,0 +1,94 @@
+package com.badlogic.gdx.controllers;
+
+/**
+ * Double-buffered button press and release bitsets of one controller, backing
+ * {@link AbstractControllerManager#isButtonJustPressed(Controller, int)}. Button events are recorded
+ * into the back buffers. The first query of a frame swaps them to the front, so a query sees all
+ * edges that happened before the frame's first query, even a press and release within one frame.
+ */
+class ControllerButtonEdges {
+	private long[] pressed = new long[1];
+	private long[] released = new long[1];
+	private long[] nextPressed = new long[1];
+	private long[] nextReleased = new long[1];
+	private boolean nextEmpty = true;
+	// frame of the latest record into the back buffers
+	private long nextFrameId;
+	private long frontFrameId = -1;
+
+	void record(int buttonCode, boolean down, long frameId) {
+		if (buttonCode < 0)
+			return;
+
+		if (!nextEmpty && frameId - nextFrameId > 1) {
+			// edges recorded more than a frame ago were never queried in time, drop them
+			clear(nextPressed);
+			clear(nextReleased);
+		}
+		nextEmpty = false;
+		nextFrameId = frameId;
+
+		int word = buttonCode >>> 6;
+		if (word >= nextPressed.length) {
+			nextPressed = grow(nextPressed, word + 1);
+			nextReleased = grow(nextReleased, word + 1);
+		}
+		if (down)
+			nextPressed[word] |= 1L << (buttonCode & 63);
+		else
+			nextReleased[word] |= 1L << (buttonCode & 63);
+	}
+
+	boolean isJustPressed(int buttonCode, long frameId) {
+		swapIfNewFrame(frameId);
+		return isSet(pressed, buttonCode);
+	}
+
+	boolean isJustReleased(int buttonCode, long frameId) {
+		swapIfNewFrame(frameId);
+		return isSet(released, buttonCode);
+	}
+
+	private void swapIfNewFrame(long frameId) {
+		if (frontFrameId == frameId)
+			return;
+
+		frontFrameId = frameId;
+		long[] swap = pressed;
+		pressed = nextPressed;
+		nextPressed = swap;
+		swap = released;
+		released = nextReleased;
+		nextReleased = swap;
+
+		// the latest edges were recorded more than a frame ago and never queried in time, drop them
+		if (nextEmpty || frameId - nextFrameId > 1) {
+			clear(pressed);
+			clear(released);
+		}
+		if (nextPressed.length < pressed.length) {
+			nextPressed = new long[pressed.length];
+			nextReleased = new long[pressed.length];
+		} else {
+			clear(nextPressed);
+			clear(nextReleased);
+		}
+		nextEmpty = true;
+	}
+
+	private static boolean isSet(long[] bits, int buttonCode) {
+		int word = buttonCode >>> 6;
+		return buttonCode >= 0 && word < bits.length && (bits[word] & (1L << (buttonCode & 63))) != 0;
+	}
+
+	private static long[] grow(long[] bits, int length) {
+		long[] newBits = new long[length];
+		System.arraycopy(bits, 0, newBits, 0, bits.length);
+		return newBits;
+	}
+
+	private static void clear(long[] bits) {
+		for (int i = 0; i < bits.length; i++)
+			bits[i] = 0;
+	}
+}
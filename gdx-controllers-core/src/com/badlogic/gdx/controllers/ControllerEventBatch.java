@@ -0,0 +1,45 @@
+package com.badlogic.gdx.controllers;
+
+/**
+ * Read-only view of the controller events of one frame, handed to {@link ControllerBatchListener}s.
+ * Events are stored as parallel primitive values and addressed by index, 0 being the oldest event.
+ * Types are the constants of {@link ControllerEventQueue}; events of type
+ * {@link ControllerEventQueue#NONE} were superseded by axis coalescing and have to be skipped.
+ * <p>
+ * The view is only valid during {@link ControllerBatchListener#eventsReceived(ControllerEventBatch)}
+ * and must not be kept.
+ */
+public interface ControllerEventBatch {
+	public int size ();
+
+	public int getType (int i);
+
+	/**
+	 * @return button or axis code
+	 */
+	public int getCode (int i);
+
+	/**
+	 * @return axis value, or the button value, 1 or 0 if the controller has no analog buttons
+	 */
+	public float getValue (int i);
+
+	/**
+	 * @return small index identifying the controller of the event within the batch
+	 */
+	public int getSlot (int i);
+
+	public Controller getSlotController (int slot);
+
+	public Controller getController (int i);
+
+	/**
+	 * @see TimedControllerListener
+	 */
+	public long getTime (int i);
+
+	/**
+	 * @see TimedControllerListener
+	 */
+	public long getSequence (int i);
+}
@@ -0,0 +1,511 @@
+package com.badlogic.gdx.controllers;
+
+import com.badlogic.gdx.utils.IntIntMap;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Growable ring buffer of controller events, stored as parallel primitive arrays instead of one
+ * object per event. Controllers are referenced by a slot index, so enqueuing an event does not
+ * allocate once the buffer reached its working size.
+ * <p>
+ * Events are read relative to the head of the queue with {@link #getType(int)} and the other
+ * getters, and dropped with {@link #removeFirst(int)} when dispatched. The queue is not thread-safe,
+ * callers producing events on another thread have to synchronize on it.
+ * <p>
+ * With {@link #setCoalesceAxisEvents(boolean)} enabled, an axis event replaces a still queued
+ * event of the same controller and axis. The replaced event's type is set to {@link #NONE} and has
+ * to be skipped by the reader, so the latest value is delivered in the position of the latest
+ * sample and button events keep their order.
+ * <p>
+ * Connection and button events are never dropped. Axis events can be bounded with
+ * {@link #setMaxAxisEvents(int)}, in which case the oldest queued axis event superseded by a newer
+ * event of the same controller and axis is dropped (its type set to {@link #NONE}) to make room for a
+ * new one, so a reader falling behind receives the latest values rather than replaying stale ones.
+ * The latest value of an axis is never dropped: if every queued axis event is the latest of its axis,
+ * the queue holds one event per axis beyond the bound.
+ * <p>
+ * Superseded and dropped events keep their place until the buffer is full. If at least half of it
+ * is taken by them then, the queue is compacted instead of grown, so its memory stays bounded by the
+ * number of live events. Compacting moves events towards the head, indices read before adding an
+ * event are not valid afterwards.
+ * <p>
+ * Every event carries a nanosecond timestamp and a global sequence number, assigned when it is
+ * added, for delivery to {@link TimedControllerListener}s.
+ */
+public class ControllerEventQueue implements ControllerEventBatch {
+	public static final int BUTTON_DOWN = 0;
+	public static final int BUTTON_UP = 1;
+	public static final int AXIS = 2;
+	public static final int CONNECTED = 4;
+	public static final int DISCONNECTED = 5;
+	/** type of an event that was superseded by coalescing, to be skipped */
+	public static final int NONE = -1;
+
+	private int[] types;
+	private int[] codes;
+	private int[] slots;
+	private float[] values;
+	private long[] times;
+	private long[] sequences;
+	private int head;
+	private int size;
+	private int removedCount;
+	// number of queued NONE events, reclaimed by compact()
+	private int tombstones;
+
+	private int axisEvents;
+	private int maxAxisEvents;
+	private long droppedCount;
+	private long deferredCount;
+	// absolute position from which dropSupersededAxisEvent() scans, every axis event before it holds
+	// the latest value of its axis
+	private int dropScan;
+
+	private boolean coalesceAxisEvents;
+	// absolute position of the latest axis event added per controller slot and axis
+	private final IntIntMap latestAxisEvents = new IntIntMap();
+
+	private Controller[] slotControllers = new Controller[4];
+	private final HeadView headView = new HeadView();
+
+	public ControllerEventQueue() {
+		this(64);
+	}
+
+	public ControllerEventQueue(int initialCapacity) {
+		initialCapacity = Math.max(1, initialCapacity);
+		types = new int[initialCapacity];
+		codes = new int[initialCapacity];
+		slots = new int[initialCapacity];
+		values = new float[initialCapacity];
+		times = new long[initialCapacity];
+		sequences = new long[initialCapacity];
+	}
+
+	public void addConnected(Controller controller) {
+		add(CONNECTED, controller, 0, 0);
+	}
+
+	public void addDisconnected(Controller controller) {
+		add(DISCONNECTED, controller, 0, 0);
+	}
+
+	public void addButton(Controller controller, int buttonCode, boolean down) {
+		add(down ? BUTTON_DOWN : BUTTON_UP, controller, buttonCode, down ? 1 : 0);
+	}
+
+	public void addAxis(Controller controller, int axisCode, float value) {
+		add(AXIS, controller, axisCode, value);
+	}
+
+	public void addButton(Controller controller, int buttonCode, boolean down, long timeNanos) {
+		add(down ? BUTTON_DOWN : BUTTON_UP, controller, buttonCode, down ? 1 : 0, timeNanos);
+	}
+
+	public void addAxis(Controller controller, int axisCode, float value, long timeNanos) {
+		add(AXIS, controller, axisCode, value, timeNanos);
+	}
+
+	/**
+	 * @param type  one of the event type constants
+	 * @param code  button or axis code
+	 * @param value axis value, or the analog button value if available
+	 */
+	public void add(int type, Controller controller, int code, float value) {
+		add(type, controller, code, value, TimeUtils.nanoTime());
+	}
+
+	/**
+	 * @param timeNanos time the event happened, see {@link TimedControllerListener}
+	 */
+	public void add(int type, Controller controller, int code, float value, long timeNanos) {
+		add(type, controller, code, value, timeNanos, ControllerEvents.nextSequence());
+	}
+
+	/**
+	 * Adds an event that already got its sequence number, see {@link ControllerEvents#nextSequence()}
+	 */
+	public void add(int type, Controller controller, int code, float value, long timeNanos, long sequence) {
+		int slot = slotOf(controller);
+		if (size == types.length) {
+			if (tombstones > 0 && tombstones >= size >> 1)
+				compact();
+			else
+				resize(size << 1);
+		}
+
+		if (type == AXIS) {
+			// events are tracked by their absolute position, which stays valid while the head moves
+			int key = axisKey(slot, code);
+			int previous = latestAxisEvents.get(key, -1);
+			latestAxisEvents.put(key, removedCount + size);
+			// the previous event became droppable, the scan has to pass it again
+			if (previous != -1 && previous - dropScan < 0)
+				dropScan = previous;
+			if (coalesceAxisEvents)
+				supersedeAxisEvent(previous, slot, code);
+			if (maxAxisEvents > 0 && axisEvents >= maxAxisEvents)
+				dropSupersededAxisEvent();
+			axisEvents++;
+		}
+
+		int index = (head + size) % types.length;
+		types[index] = type;
+		codes[index] = code;
+		slots[index] = slot;
+		values[index] = value;
+		times[index] = timeNanos;
+		sequences[index] = sequence;
+		size++;
+	}
+
+	/**
+	 * @param coalesceAxisEvents whether a newly added axis event supersedes a still queued axis event
+	 *                           of the same controller and axis. Disabled by default.
+	 */
+	public void setCoalesceAxisEvents(boolean coalesceAxisEvents) {
+		this.coalesceAxisEvents = coalesceAxisEvents;
+	}
+
+	public boolean isCoalesceAxisEvents() {
+		return coalesceAxisEvents;
+	}
+
+	/**
+	 * @param maxAxisEvents maximum number of queued axis events, the oldest superseded one is dropped
+	 *                      when adding another one. Exceeded by events holding the latest value of
+	 *                      their axis, which are never dropped. 0 for no limit, the default.
+	 */
+	public void setMaxAxisEvents(int maxAxisEvents) {
+		this.maxAxisEvents = Math.max(0, maxAxisEvents);
+		while (this.maxAxisEvents > 0 && axisEvents > this.maxAxisEvents) {
+			if (!dropSupersededAxisEvent())
+				break;
+		}
+	}
+
+	public int getMaxAxisEvents() {
+		return maxAxisEvents;
+	}
+
+	/**
+	 * @return number of axis events dropped because of {@link #setMaxAxisEvents(int)}
+	 */
+	public long getDroppedCount() {
+		return droppedCount;
+	}
+
+	/**
+	 * @return number of events left in the queue by {@link #removeDispatched(int)}, summed over all
+	 * calls. An event deferred several times is counted every time.
+	 */
+	public long getDeferredCount() {
+		return deferredCount;
+	}
+
+	/**
+	 * @return number of queued events
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param i index relative to the head of the queue, 0 being the oldest event
+	 */
+	@Override
+	public int getType(int i) {
+		return types[toIndex(i)];
+	}
+
+	@Override
+	public int getCode(int i) {
+		return codes[toIndex(i)];
+	}
+
+	@Override
+	public float getValue(int i) {
+		return values[toIndex(i)];
+	}
+
+	@Override
+	public long getTime(int i) {
+		return times[toIndex(i)];
+	}
+
+	@Override
+	public long getSequence(int i) {
+		return sequences[toIndex(i)];
+	}
+
+	@Override
+	public int getSlot(int i) {
+		return slots[toIndex(i)];
+	}
+
+	@Override
+	public Controller getController(int i) {
+		return slotControllers[slots[toIndex(i)]];
+	}
+
+	/**
+	 * @return controller referenced by the given slot, as returned by {@link #getSlot(int)}
+	 */
+	@Override
+	public Controller getSlotController(int slot) {
+		return slotControllers[slot];
+	}
+
+	/**
+	 * Removes the oldest count events. Slots of controllers whose disconnection is removed are
+	 * released.
+	 */
+	public void removeFirst(int count) {
+		if (count > size)
+			throw new IndexOutOfBoundsException("count can't be > size: " + count + " > " + size);
+
+		for (int i = 0; i < count; i++) {
+			int index = (head + i) % types.length;
+			if (types[index] == DISCONNECTED)
+				slotControllers[slots[index]] = null;
+			else if (types[index] == AXIS)
+				axisEvents--;
+			else if (types[index] == NONE)
+				tombstones--;
+		}
+		head = (head + count) % types.length;
+		size -= count;
+		removedCount += count;
+		if (size == 0) {
+			head = 0;
+			if (latestAxisEvents.size > 0)
+				latestAxisEvents.clear();
+		}
+	}
+
+	public void clear() {
+		removeFirst(size);
+	}
+
+	/**
+	 * Removes the first count events that were dispatched, and counts the remaining ones as deferred
+	 * to the next dispatch
+	 */
+	public void removeDispatched(int count) {
+		removeFirst(count);
+		deferredCount += size;
+	}
+
+	/**
+	 * @return view of the first count events, for handing the dispatched part of the queue to
+	 * {@link ControllerBatchListener}s. The view is reused and only valid until the queue is modified.
+	 */
+	public ControllerEventBatch head(int count) {
+		if (count < 0 || count > size)
+			throw new IndexOutOfBoundsException("count can't be > size: " + count + " > " + size);
+		if (count == size)
+			return this;
+
+		headView.count = count;
+		return headView;
+	}
+
+	private int toIndex(int i) {
+		if (i < 0 || i >= size)
+			throw new IndexOutOfBoundsException("index can't be >= size: " + i + " >= " + size);
+		return (head + i) % types.length;
+	}
+
+	/**
+	 * Marks the queued axis event at the given absolute position as {@link #NONE}, if it is still
+	 * queued
+	 */
+	private void supersedeAxisEvent(int position, int slot, int code) {
+		int i = position - removedCount;
+		if (position != -1 && i >= 0 && i < size) {
+			int index = (head + i) % types.length;
+			if (types[index] == AXIS && slots[index] == slot && codes[index] == code) {
+				types[index] = NONE;
+				axisEvents--;
+				tombstones++;
+			}
+		}
+	}
+
+	/**
+	 * Drops the oldest axis event for which a newer event of the same controller and axis was added.
+	 * The scan continues where the previous one stopped and only goes back for an event superseded
+	 * since, which happens once per latest event of an axis.
+	 *
+	 * @return false if every queued axis event holds the latest value of its axis
+	 */
+	private boolean dropSupersededAxisEvent() {
+		for (int i = Math.max(0, dropScan - removedCount); i < size; i++) {
+			int index = (head + i) % types.length;
+			if (types[index] != AXIS)
+				continue;
+
+			if (latestAxisEvents.get(axisKey(slots[index], codes[index]), -1) != removedCount + i) {
+				types[index] = NONE;
+				axisEvents--;
+				tombstones++;
+				droppedCount++;
+				dropScan = removedCount + i + 1;
+				return true;
+			}
+		}
+		dropScan = removedCount + size;
+		return false;
+	}
+
+	/**
+	 * Removes the {@link #NONE} events, moving the following events towards the head
+	 */
+	private void compact() {
+		if (latestAxisEvents.size > 0)
+			latestAxisEvents.clear();
+
+		int capacity = types.length;
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			int from = (head + i) % capacity;
+			if (types[from] == NONE)
+				continue;
+
+			int to = (head + kept) % capacity;
+			if (to != from) {
+				types[to] = types[from];
+				codes[to] = codes[from];
+				slots[to] = slots[from];
+				values[to] = values[from];
+				times[to] = times[from];
+				sequences[to] = sequences[from];
+			}
+			// the last queued event of an axis holds its latest value
+			if (types[to] == AXIS)
+				latestAxisEvents.put(axisKey(slots[to], codes[to]), removedCount + kept);
+			kept++;
+		}
+		size = kept;
+		tombstones = 0;
+		dropScan = removedCount;
+	}
+
+	private static int axisKey(int slot, int code) {
+		return slot << 16 | code & 0xffff;
+	}
+
+	private int slotOf(Controller controller) {
+		int free = -1;
+		for (int i = 0; i < slotControllers.length; i++) {
+			if (slotControllers[i] == controller)
+				return i;
+			if (free < 0 && slotControllers[i] == null)
+				free = i;
+		}
+
+		if (free < 0) {
+			free = slotControllers.length;
+			Controller[] newSlots = new Controller[free << 1];
+			System.arraycopy(slotControllers, 0, newSlots, 0, free);
+			slotControllers = newSlots;
+		}
+		slotControllers[free] = controller;
+		return free;
+	}
+
+	private void resize(int newCapacity) {
+		types = copyInOrder(types, new int[newCapacity]);
+		codes = copyInOrder(codes, new int[newCapacity]);
+		slots = copyInOrder(slots, new int[newCapacity]);
+		times = copyInOrder(times, new long[newCapacity]);
+		sequences = copyInOrder(sequences, new long[newCapacity]);
+
+		float[] newValues = new float[newCapacity];
+		int firstPart = Math.min(size, values.length - head);
+		System.arraycopy(values, head, newValues, 0, firstPart);
+		System.arraycopy(values, 0, newValues, firstPart, size - firstPart);
+		values = newValues;
+		head = 0;
+	}
+
+	private int[] copyInOrder(int[] source, int[] target) {
+		int firstPart = Math.min(size, source.length - head);
+		System.arraycopy(source, head, target, 0, firstPart);
+		System.arraycopy(source, 0, target, firstPart, size - firstPart);
+		return target;
+	}
+
+	private long[] copyInOrder(long[] source, long[] target) {
+		int firstPart = Math.min(size, source.length - head);
+		System.arraycopy(source, head, target, 0, firstPart);
+		System.arraycopy(source, 0, target, firstPart, size - firstPart);
+		return target;
+	}
+
+	private class HeadView implements ControllerEventBatch {
+		int count;
+
+		@Override
+		public int size() {
+			return count;
+		}
+
+		@Override
+		public int getType(int i) {
+			checkIndex(i);
+			return ControllerEventQueue.this.getType(i);
+		}
+
+		@Override
+		public int getCode(int i) {
+			checkIndex(i);
+			return ControllerEventQueue.this.getCode(i);
+		}
+
+		@Override
+		public float getValue(int i) {
+			checkIndex(i);
+			return ControllerEventQueue.this.getValue(i);
+		}
+
+		@Override
+		public int getSlot(int i) {
+			checkIndex(i);
+			return ControllerEventQueue.this.getSlot(i);
+		}
+
+		@Override
+		public Controller getSlotController(int slot) {
+			return ControllerEventQueue.this.getSlotController(slot);
+		}
+
+		@Override
+		public Controller getController(int i) {
+			checkIndex(i);
+			return ControllerEventQueue.this.getController(i);
+		}
+
+		@Override
+		public long getTime(int i) {
+			checkIndex(i);
+			return ControllerEventQueue.this.getTime(i);
+		}
+
+		@Override
+		public long getSequence(int i) {
+			checkIndex(i);
+			return ControllerEventQueue.this.getSequence(i);
+		}
+
+		private void checkIndex(int i) {
+			if (i >= count)
+				throw new IndexOutOfBoundsException("index can't be >= size: " + i + " >= " + count);
+		}
+	}
+}
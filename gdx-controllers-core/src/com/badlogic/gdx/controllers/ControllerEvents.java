@@ -0,0 +1,51 @@
+package com.badlogic.gdx.controllers;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global event sequence and helpers for delivering timed events to listeners that may or may not
+ * implement {@link TimedControllerListener}.
+ */
+public final class ControllerEvents {
+	private static final AtomicLong sequence = new AtomicLong();
+
+	private ControllerEvents() {
+	}
+
+	/**
+	 * @return the next global event sequence number, may be called from any thread
+	 */
+	public static long nextSequence() {
+		return sequence.incrementAndGet();
+	}
+
+	public static boolean buttonDown(ControllerListener listener, Controller controller, int buttonCode,
+			long timeNanos, long sequence) {
+		if (listener instanceof TimedControllerListener)
+			return ((TimedControllerListener) listener).buttonDown(controller, buttonCode, timeNanos, sequence);
+		return listener.buttonDown(controller, buttonCode);
+	}
+
+	public static boolean buttonUp(ControllerListener listener, Controller controller, int buttonCode,
+			long timeNanos, long sequence) {
+		if (listener instanceof TimedControllerListener)
+			return ((TimedControllerListener) listener).buttonUp(controller, buttonCode, timeNanos, sequence);
+		return listener.buttonUp(controller, buttonCode);
+	}
+
+	public static boolean axisMoved(ControllerListener listener, Controller controller, int axisCode, float value,
+			long timeNanos, long sequence) {
+		if (listener instanceof TimedControllerListener)
+			return ((TimedControllerListener) listener).axisMoved(controller, axisCode, value, timeNanos, sequence);
+		return listener.axisMoved(controller, axisCode, value);
+	}
+
+	/**
+	 * Notifies the listener if it implements {@link ControllerPowerLevelListener}
+	 */
+	public static void powerLevelChanged(ControllerListener listener, Controller controller,
+			ControllerPowerLevel powerLevel) {
+		if (listener instanceof ControllerPowerLevelListener)
+			((ControllerPowerLevelListener) listener).powerLevelChanged(controller, powerLevel);
+	}
+}
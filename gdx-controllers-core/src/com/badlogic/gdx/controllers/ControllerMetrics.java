@@ -0,0 +1,254 @@
+package com.badlogic.gdx.controllers;
+
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Counters and timings of a manager's event pipeline, see {@link AbstractControllerManager#getMetrics()}.
+ * Values are recorded by the manager on the thread dispatching events and may be read from any
+ * thread, e.g. by a monitoring tool. Event rates are computed over windows of about one second,
+ * updated when a dispatch is recorded.
+ */
+public class ControllerMetrics {
+	private static final int TYPE_COUNT = ControllerEventQueue.DISCONNECTED + 1;
+	private static final long RATE_WINDOW_NANOS = 1000000000L;
+
+	private final long[] eventCounts = new long[TYPE_COUNT];
+	private final long[] windowStartCounts = new long[TYPE_COUNT];
+	private final float[] eventsPerSecond = new float[TYPE_COUNT];
+	private long windowStart = -1;
+
+	private volatile int queueDepth;
+	private volatile int maxQueueDepth;
+	private volatile long lastDispatchNanos;
+	private volatile long maxDispatchNanos;
+	private volatile long totalDispatchNanos;
+	private volatile long dispatchCount;
+
+	private final IdentityMap<Controller, long[]> pollNanos = new IdentityMap<>();
+	private volatile long skippedPollCount;
+	private volatile long savedPollNanos;
+	private volatile long lastAllocatedBytes = -1;
+	private volatile long maxAllocatedBytes = -1;
+	private volatile long allocatingPollCount;
+
+	/**
+	 * Counts an event
+	 *
+	 * @param type one of the {@link ControllerEventQueue} event types
+	 */
+	public void recordEvent(int type) {
+		if (type >= 0 && type < TYPE_COUNT)
+			eventCounts[type]++;
+	}
+
+	/**
+	 * Records a dispatch of queued events and updates the event rates
+	 *
+	 * @param queueDepth    number of events that were queued when the dispatch started
+	 * @param dispatchNanos time spent dispatching
+	 */
+	public void recordDispatch(int queueDepth, long dispatchNanos) {
+		this.queueDepth = queueDepth;
+		if (queueDepth > maxQueueDepth)
+			maxQueueDepth = queueDepth;
+		lastDispatchNanos = dispatchNanos;
+		if (dispatchNanos > maxDispatchNanos)
+			maxDispatchNanos = dispatchNanos;
+		totalDispatchNanos += dispatchNanos;
+		dispatchCount++;
+
+		long now = TimeUtils.nanoTime();
+		if (windowStart < 0) {
+			windowStart = now;
+		} else if (now - windowStart >= RATE_WINDOW_NANOS) {
+			float seconds = (now - windowStart) / 1000000000f;
+			synchronized (eventsPerSecond) {
+				for (int type = 0; type < TYPE_COUNT; type++) {
+					eventsPerSecond[type] = (eventCounts[type] - windowStartCounts[type]) / seconds;
+					windowStartCounts[type] = eventCounts[type];
+				}
+			}
+			windowStart = now;
+		}
+	}
+
+	/**
+	 * Records how long polling a controller took, for implementations polling the native state
+	 */
+	public void recordPoll(Controller controller, long pollNanos) {
+		synchronized (this.pollNanos) {
+			long[] nanos = this.pollNanos.get(controller);
+			if (nanos == null) {
+				nanos = new long[1];
+				this.pollNanos.put(controller, nanos);
+			}
+			nanos[0] = pollNanos;
+		}
+	}
+
+	/**
+	 * Records a poll left out because the controller was idle, for implementations polling idle
+	 * controllers at a lower rate
+	 *
+	 * @param estimatedNanos the time the poll would have taken, e.g. the duration of the last poll
+	 */
+	public void recordSkippedPoll(long estimatedNanos) {
+		skippedPollCount++;
+		savedPollNanos += estimatedNanos;
+	}
+
+	/**
+	 * Records the bytes allocated by a poll and the dispatch of its events, for implementations able to
+	 * measure allocations. Once controllers are connected, polling should not allocate.
+	 */
+	public void recordAllocation(long allocatedBytes) {
+		lastAllocatedBytes = allocatedBytes;
+		if (allocatedBytes > maxAllocatedBytes)
+			maxAllocatedBytes = allocatedBytes;
+		if (allocatedBytes > 0)
+			allocatingPollCount++;
+	}
+
+	/**
+	 * Forgets the poll duration of a disconnected controller
+	 */
+	public void removeController(Controller controller) {
+		synchronized (pollNanos) {
+			pollNanos.remove(controller);
+		}
+	}
+
+	/**
+	 * @return total number of events of the type since creation or {@link #reset()}
+	 */
+	public long getEventCount(int type) {
+		return type >= 0 && type < TYPE_COUNT ? eventCounts[type] : 0;
+	}
+
+	/**
+	 * @return events of the type per second, measured over the last completed window
+	 */
+	public float getEventsPerSecond(int type) {
+		if (type < 0 || type >= TYPE_COUNT)
+			return 0;
+		synchronized (eventsPerSecond) {
+			return eventsPerSecond[type];
+		}
+	}
+
+	public long getConnectCount() {
+		return eventCounts[ControllerEventQueue.CONNECTED];
+	}
+
+	public long getDisconnectCount() {
+		return eventCounts[ControllerEventQueue.DISCONNECTED];
+	}
+
+	/**
+	 * @return number of queued events at the start of the last dispatch
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public int getMaxQueueDepth() {
+		return maxQueueDepth;
+	}
+
+	public long getLastDispatchNanos() {
+		return lastDispatchNanos;
+	}
+
+	public long getMaxDispatchNanos() {
+		return maxDispatchNanos;
+	}
+
+	public long getAverageDispatchNanos() {
+		long count = dispatchCount;
+		return count == 0 ? 0 : totalDispatchNanos / count;
+	}
+
+	/**
+	 * @return duration of the last poll of the controller, or -1 if it was not polled
+	 */
+	public long getPollNanos(Controller controller) {
+		synchronized (pollNanos) {
+			long[] nanos = pollNanos.get(controller);
+			return nanos != null ? nanos[0] : -1;
+		}
+	}
+
+	/**
+	 * @return number of polls left out for idle controllers
+	 */
+	public long getSkippedPollCount() {
+		return skippedPollCount;
+	}
+
+	/**
+	 * @return estimated polling time saved by leaving out polls of idle controllers
+	 */
+	public long getSavedPollNanos() {
+		return savedPollNanos;
+	}
+
+	/**
+	 * @return bytes allocated by the last measured poll, -1 if allocations are not measured
+	 */
+	public long getLastAllocatedBytes() {
+		return lastAllocatedBytes;
+	}
+
+	/**
+	 * @return most bytes allocated by a measured poll, -1 if allocations are not measured
+	 */
+	public long getMaxAllocatedBytes() {
+		return maxAllocatedBytes;
+	}
+
+	/**
+	 * @return number of measured polls that allocated
+	 */
+	public long getAllocatingPollCount() {
+		return allocatingPollCount;
+	}
+
+	/**
+	 * @return the controllers with a recorded poll duration
+	 */
+	public Controller[] getPolledControllers() {
+		synchronized (pollNanos) {
+			Controller[] controllers = new Controller[pollNanos.size];
+			int i = 0;
+			for (Controller controller : pollNanos.keys())
+				controllers[i++] = controller;
+			return controllers;
+		}
+	}
+
+	/**
+	 * Resets all counters, maximums and averages
+	 */
+	public void reset() {
+		synchronized (eventsPerSecond) {
+			for (int type = 0; type < TYPE_COUNT; type++) {
+				eventCounts[type] = 0;
+				windowStartCounts[type] = 0;
+				eventsPerSecond[type] = 0;
+			}
+		}
+		windowStart = -1;
+		queueDepth = 0;
+		maxQueueDepth = 0;
+		lastDispatchNanos = 0;
+		maxDispatchNanos = 0;
+		totalDispatchNanos = 0;
+		dispatchCount = 0;
+		skippedPollCount = 0;
+		savedPollNanos = 0;
+		lastAllocatedBytes = -1;
+		maxAllocatedBytes = -1;
+		allocatingPollCount = 0;
+	}
+}
@@ -30,4 +30,20 @@ public enum ControllerPowerLevel {
      * Controller is wired or charging
      */
     POWER_WIRED;
+
+    /**
+     * @param charge battery charge from 0 to 1
+     * @return level of a discharging battery with the given charge
+     */
+    public static ControllerPowerLevel fromCharge(float charge) {
+        if (charge <= 0.05f) {
+            return POWER_EMPTY;
+        } else if (charge <= 0.20f) {
+            return POWER_LOW;
+        } else if (charge <= 0.70f) {
+            return POWER_MEDIUM;
+        } else {
+            return POWER_FULL;
+        }
+    }
 }
@@ -0,0 +1,11 @@
+package com.badlogic.gdx.controllers;
+
+/**
+ * {@link ControllerListener} that additionally receives changes of a controller's
+ * {@link ControllerPowerLevel}. Implementations cache the power level and refresh it on a slow
+ * schedule where the platform reports it, so {@link Controller#getPowerLevel()} is cheap to call every
+ * frame, and this method is only called when the level changes from one bucket to another.
+ */
+public interface ControllerPowerLevelListener extends ControllerListener {
+	public void powerLevelChanged (Controller controller, ControllerPowerLevel powerLevel);
+}
@@ -0,0 +1,82 @@
+package com.badlogic.gdx.controllers;
+
+/**
+ * Immutable state of a {@link Controller} at the end of a manager poll, see
+ * {@link AbstractControllerManager#getSnapshot(Controller)}. Unlike the controller itself, a snapshot
+ * may be read from any thread. The version is increased every time a changed state is published for
+ * the controller, so readers can cheaply detect whether anything changed.
+ */
+public final class ControllerSnapshot {
+	private final Controller controller;
+	private final long version;
+	private final long[] buttons;
+	private final float[] axes;
+	private final boolean connected;
+
+	ControllerSnapshot(Controller controller, long version, ControllerState state) {
+		this.controller = controller;
+		this.version = version;
+		this.buttons = new long[state.buttons.length];
+		System.arraycopy(state.buttons, 0, buttons, 0, buttons.length);
+		this.axes = new float[state.axisCount];
+		System.arraycopy(state.axes, 0, axes, 0, axes.length);
+		this.connected = state.connected;
+	}
+
+	public Controller getController() {
+		return controller;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public boolean getButton(int buttonCode) {
+		int word = buttonCode >>> 6;
+		return buttonCode >= 0 && word < buttons.length && (buttons[word] & (1L << (buttonCode & 63))) != 0;
+	}
+
+	public float getAxis(int axisCode) {
+		return axisCode >= 0 && axisCode < axes.length ? axes[axisCode] : 0;
+	}
+
+	public int getAxisCount() {
+		return axes.length;
+	}
+
+	public boolean isConnected() {
+		return connected;
+	}
+
+	/**
+	 * Copies this snapshot into a mutable state
+	 */
+	public void readState(ControllerState out) {
+		if (out.buttons.length != buttons.length)
+			out.buttons = new long[buttons.length];
+		System.arraycopy(buttons, 0, out.buttons, 0, buttons.length);
+		if (out.axes.length < axes.length)
+			out.axes = new float[axes.length];
+		System.arraycopy(axes, 0, out.axes, 0, axes.length);
+		out.axisCount = axes.length;
+		out.connected = connected;
+	}
+
+	boolean equalsState(ControllerState state) {
+		if (connected != state.connected || axes.length != state.axisCount)
+			return false;
+
+		int words = Math.max(buttons.length, state.buttons.length);
+		for (int i = 0; i < words; i++) {
+			long own = i < buttons.length ? buttons[i] : 0;
+			long other = i < state.buttons.length ? state.buttons[i] : 0;
+			if (own != other)
+				return false;
+		}
+		for (int i = 0; i < axes.length; i++) {
+			if (axes[i] != state.axes[i])
+				return false;
+		}
+		return true;
+	}
+}
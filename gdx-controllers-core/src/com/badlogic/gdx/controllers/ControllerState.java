@@ -0,0 +1,78 @@
+package com.badlogic.gdx.controllers;
+
+/**
+ * Full state of a {@link Controller}, filled by {@link Controller#readState(ControllerState)}. Buttons
+ * are stored as a bitset indexed by button code, axes as array indexed by axis code. Instances can and
+ * should be reused, the arrays only grow when a controller with more buttons or axes is read.
+ */
+public class ControllerState {
+	/** pressed buttons, bit (code &amp; 63) of element (code &gt;&gt;&gt; 6) is set if button code is pressed */
+	public long[] buttons = new long[1];
+	/** axis values, only the first {@link #axisCount} values are valid */
+	public float[] axes = new float[0];
+	public int axisCount;
+	public boolean connected;
+
+	/**
+	 * @return whether the button was pressed when the state was read
+	 */
+	public boolean getButton(int buttonCode) {
+		int word = buttonCode >>> 6;
+		return buttonCode >= 0 && word < buttons.length && (buttons[word] & (1L << (buttonCode & 63))) != 0;
+	}
+
+	/**
+	 * @return value of the axis when the state was read, 0 if the controller has no such axis
+	 */
+	public float getAxis(int axisCode) {
+		return axisCode >= 0 && axisCode < axisCount ? axes[axisCode] : 0;
+	}
+
+	public void setButton(int buttonCode, boolean pressed) {
+		if (buttonCode < 0)
+			return;
+
+		int word = buttonCode >>> 6;
+		if (word >= buttons.length) {
+			if (!pressed)
+				return;
+			long[] newButtons = new long[word + 1];
+			System.arraycopy(buttons, 0, newButtons, 0, buttons.length);
+			buttons = newButtons;
+		}
+
+		if (pressed)
+			buttons[word] |= 1L << (buttonCode & 63);
+		else
+			buttons[word] &= ~(1L << (buttonCode & 63));
+	}
+
+	/**
+	 * Releases all buttons and prepares room for the given number of buttons and axes. Axis values are
+	 * not cleared, callers are expected to overwrite them.
+	 */
+	public void reset(int maxButtonIndex, int axisCount) {
+		int words = (Math.max(0, maxButtonIndex) >>> 6) + 1;
+		if (buttons.length < words)
+			buttons = new long[words];
+		else
+			for (int i = 0; i < buttons.length; i++)
+				buttons[i] = 0;
+
+		if (axes.length < axisCount)
+			axes = new float[axisCount];
+		this.axisCount = axisCount;
+	}
+
+	public void set(ControllerState state) {
+		if (buttons.length != state.buttons.length)
+			buttons = new long[state.buttons.length];
+		System.arraycopy(state.buttons, 0, buttons, 0, buttons.length);
+
+		if (axes.length < state.axisCount)
+			axes = new float[state.axisCount];
+		System.arraycopy(state.axes, 0, axes, 0, state.axisCount);
+		axisCount = state.axisCount;
+		connected = state.connected;
+	}
+}
@@ -0,0 +1,274 @@
+package com.badlogic.gdx.controllers;
+
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Routes controller events only to the listeners subscribed to their type and code, instead of
+ * broadcasting every event to every listener. Register an instance once with
+ * {@link Controllers#addListener(ControllerListener)} (or with a single controller), then subscribe
+ * listeners with {@link #subscribe(int, int, Controller, ControllerListener)}.
+ * <p>
+ * Subscriptions are kept in one dispatch table per event type, indexed by button or axis code, so an
+ * event visits only the listeners interested in it. A subscribed listener only receives the method of
+ * the subscribed type, timed if it is a {@link TimedControllerListener}. Listeners subscribed to a
+ * specific controller are dropped when it disconnects. Like {@link ListenerRegistry}, the tables are
+ * copy-on-write, so subscribing is allowed on any thread and never blocks event delivery.
+ */
+public class ControllerSubscriptions implements TimedControllerListener {
+	private static final Subscription[][] EMPTY = new Subscription[0][];
+
+	private volatile Subscription[][] buttonDown = EMPTY;
+	private volatile Subscription[][] buttonUp = EMPTY;
+	private volatile Subscription[][] axisMoved = EMPTY;
+
+	/**
+	 * Subscribes the listener to an event type and code
+	 *
+	 * @param type       {@link ControllerEventQueue#BUTTON_DOWN}, {@link ControllerEventQueue#BUTTON_UP} or
+	 *                   {@link ControllerEventQueue#AXIS}
+	 * @param code       button or axis code, must be &gt;= 0
+	 * @param controller controller to receive events from, or null for all controllers
+	 * @return false if the listener was already subscribed to the same events
+	 */
+	public synchronized boolean subscribe(int type, int code, Controller controller, ControllerListener listener) {
+		if (code < 0)
+			throw new IllegalArgumentException("code must be >= 0: " + code);
+		if (listener == null)
+			throw new IllegalArgumentException("listener must not be null");
+
+		Subscription[][] table = getTable(type);
+		Subscription[] current = code < table.length ? table[code] : null;
+		if (current == null)
+			current = new Subscription[0];
+		else if (indexOf(current, controller, listener) >= 0)
+			return false;
+
+		Subscription[] subscriptions = new Subscription[current.length + 1];
+		System.arraycopy(current, 0, subscriptions, 0, current.length);
+		subscriptions[current.length] = new Subscription(controller, listener);
+		setTable(type, withCode(table, code, subscriptions));
+		return true;
+	}
+
+	/**
+	 * Subscribes the listener to presses and releases of a button
+	 *
+	 * @param controller controller to receive events from, or null for all controllers
+	 */
+	public void subscribeButton(int buttonCode, Controller controller, ControllerListener listener) {
+		subscribe(ControllerEventQueue.BUTTON_DOWN, buttonCode, controller, listener);
+		subscribe(ControllerEventQueue.BUTTON_UP, buttonCode, controller, listener);
+	}
+
+	/**
+	 * Subscribes the listener to movements of an axis
+	 *
+	 * @param controller controller to receive events from, or null for all controllers
+	 */
+	public void subscribeAxis(int axisCode, Controller controller, ControllerListener listener) {
+		subscribe(ControllerEventQueue.AXIS, axisCode, controller, listener);
+	}
+
+	/**
+	 * @return true if the subscription existed and is removed
+	 */
+	public synchronized boolean unsubscribe(int type, int code, Controller controller, ControllerListener listener) {
+		Subscription[][] table = getTable(type);
+		if (code < 0 || code >= table.length || table[code] == null)
+			return false;
+
+		Subscription[] current = table[code];
+		int index = indexOf(current, controller, listener);
+		if (index < 0)
+			return false;
+
+		Subscription[] subscriptions = null;
+		if (current.length > 1) {
+			subscriptions = new Subscription[current.length - 1];
+			System.arraycopy(current, 0, subscriptions, 0, index);
+			System.arraycopy(current, index + 1, subscriptions, index, current.length - index - 1);
+		}
+		setTable(type, withCode(table, code, subscriptions));
+		return true;
+	}
+
+	/**
+	 * Removes all subscriptions of the listener
+	 */
+	public synchronized void unsubscribeAll(ControllerListener listener) {
+		buttonDown = without(buttonDown, null, listener);
+		buttonUp = without(buttonUp, null, listener);
+		axisMoved = without(axisMoved, null, listener);
+	}
+
+	public synchronized void clear() {
+		buttonDown = EMPTY;
+		buttonUp = EMPTY;
+		axisMoved = EMPTY;
+	}
+
+	@Override
+	public void connected(Controller controller) {
+	}
+
+	@Override
+	public synchronized void disconnected(Controller controller) {
+		buttonDown = without(buttonDown, controller, null);
+		buttonUp = without(buttonUp, controller, null);
+		axisMoved = without(axisMoved, controller, null);
+	}
+
+	@Override
+	public boolean buttonDown(Controller controller, int buttonCode) {
+		return buttonDown(controller, buttonCode, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+	}
+
+	@Override
+	public boolean buttonUp(Controller controller, int buttonCode) {
+		return buttonUp(controller, buttonCode, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+	}
+
+	@Override
+	public boolean axisMoved(Controller controller, int axisCode, float value) {
+		return axisMoved(controller, axisCode, value, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+	}
+
+	@Override
+	public boolean buttonDown(Controller controller, int buttonCode, long timeNanos, long sequence) {
+		Subscription[][] table = buttonDown;
+		if (buttonCode < 0 || buttonCode >= table.length || table[buttonCode] == null)
+			return false;
+
+		for (Subscription subscription : table[buttonCode]) {
+			if (subscription.matches(controller)
+					&& ControllerEvents.buttonDown(subscription.listener, controller, buttonCode, timeNanos, sequence))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean buttonUp(Controller controller, int buttonCode, long timeNanos, long sequence) {
+		Subscription[][] table = buttonUp;
+		if (buttonCode < 0 || buttonCode >= table.length || table[buttonCode] == null)
+			return false;
+
+		for (Subscription subscription : table[buttonCode]) {
+			if (subscription.matches(controller)
+					&& ControllerEvents.buttonUp(subscription.listener, controller, buttonCode, timeNanos, sequence))
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	public boolean axisMoved(Controller controller, int axisCode, float value, long timeNanos, long sequence) {
+		Subscription[][] table = axisMoved;
+		if (axisCode < 0 || axisCode >= table.length || table[axisCode] == null)
+			return false;
+
+		for (Subscription subscription : table[axisCode]) {
+			if (subscription.matches(controller)
+					&& ControllerEvents.axisMoved(subscription.listener, controller, axisCode, value, timeNanos, sequence))
+				return true;
+		}
+		return false;
+	}
+
+	private Subscription[][] getTable(int type) {
+		switch (type) {
+			case ControllerEventQueue.BUTTON_DOWN:
+				return buttonDown;
+			case ControllerEventQueue.BUTTON_UP:
+				return buttonUp;
+			case ControllerEventQueue.AXIS:
+				return axisMoved;
+			default:
+				throw new IllegalArgumentException("Unsupported event type: " + type);
+		}
+	}
+
+	private void setTable(int type, Subscription[][] table) {
+		switch (type) {
+			case ControllerEventQueue.BUTTON_DOWN:
+				buttonDown = table;
+				break;
+			case ControllerEventQueue.BUTTON_UP:
+				buttonUp = table;
+				break;
+			default:
+				axisMoved = table;
+		}
+	}
+
+	private static Subscription[][] withCode(Subscription[][] table, int code, Subscription[] subscriptions) {
+		Subscription[][] copy = new Subscription[Math.max(table.length, code + 1)][];
+		System.arraycopy(table, 0, copy, 0, table.length);
+		copy[code] = subscriptions;
+		return copy;
+	}
+
+	/**
+	 * @return table without the subscriptions of the controller or listener, or the same table if
+	 * nothing matched. A null controller or listener matches any.
+	 */
+	private static Subscription[][] without(Subscription[][] table, Controller controller, ControllerListener listener) {
+		Subscription[][] copy = null;
+		for (int code = 0; code < table.length; code++) {
+			Subscription[] current = table[code];
+			if (current == null)
+				continue;
+
+			int remaining = 0;
+			for (Subscription subscription : current) {
+				if (!subscription.isOf(controller, listener))
+					remaining++;
+			}
+			if (remaining == current.length)
+				continue;
+
+			Subscription[] subscriptions = null;
+			if (remaining > 0) {
+				subscriptions = new Subscription[remaining];
+				int i = 0;
+				for (Subscription subscription : current) {
+					if (!subscription.isOf(controller, listener))
+						subscriptions[i++] = subscription;
+				}
+			}
+			if (copy == null) {
+				copy = new Subscription[table.length][];
+				System.arraycopy(table, 0, copy, 0, table.length);
+			}
+			copy[code] = subscriptions;
+		}
+		return copy != null ? copy : table;
+	}
+
+	private static int indexOf(Subscription[] subscriptions, Controller controller, ControllerListener listener) {
+		for (int i = 0; i < subscriptions.length; i++) {
+			if (subscriptions[i].controller == controller && subscriptions[i].listener == listener)
+				return i;
+		}
+		return -1;
+	}
+
+	private static class Subscription {
+		final Controller controller;
+		final ControllerListener listener;
+
+		Subscription(Controller controller, ControllerListener listener) {
+			this.controller = controller;
+			this.listener = listener;
+		}
+
+		boolean matches(Controller eventController) {
+			return controller == null || controller == eventController;
+		}
+
+		boolean isOf(Controller controller, ControllerListener listener) {
+			return (controller == null || this.controller == controller)
+					&& (listener == null || this.listener == listener);
+		}
+	}
+}
@@ -26,6 +26,8 @@ import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.reflect.ClassReflection;
 
+import java.util.concurrent.Executor;
+
 /** Provides access to connected {@link Controller} instances. Query the available controllers via {@link #getControllers()}, add
  * and remove global {@link ControllerListener} instances via {@link #addListener(ControllerListener)} and
  * {@link #removeListener(ControllerListener)}. The listeners will be invoked on the rendering thread. The global listeners will
@@ -59,7 +61,7 @@ public class Controllers {
 	}
 
 	/** Add a global {@link ControllerListener} that can react to events from all {@link Controller} instances. The listener will be
-	 * invoked on the rendering thread.
+	 * invoked on the rendering thread, unless a dispatch executor is set with {@link #setDispatchExecutor(Executor)}.
 	 * @param listener */
 	static public void addListener (ControllerListener listener) {
 		initialize();
@@ -85,6 +87,80 @@ public class Controllers {
 		return getManager().getListeners();
 	}
 
+	/** @return whether the button of the controller was pressed since the previous frame. This method should only be called
+	 *         on the rendering thread. */
+	static public boolean isButtonJustPressed (Controller controller, int buttonCode) {
+		AbstractControllerManager manager = getAbstractManager();
+		return manager != null && manager.isButtonJustPressed(controller, buttonCode);
+	}
+
+	/** @return whether the button of the controller was released since the previous frame. This method should only be called
+	 *         on the rendering thread. */
+	static public boolean isButtonJustReleased (Controller controller, int buttonCode) {
+		AbstractControllerManager manager = getAbstractManager();
+		return manager != null && manager.isButtonJustReleased(controller, buttonCode);
+	}
+
+	/** Enables or disables per-frame coalescing of axis events, see {@link AbstractControllerManager#setCoalesceAxisEvents(boolean)}.
+	 * Has no effect if the active manager does not support it. */
+	static public void setCoalesceAxisEvents (boolean coalesceAxisEvents) {
+		AbstractControllerManager manager = getAbstractManager();
+		if (manager != null) manager.setCoalesceAxisEvents(coalesceAxisEvents);
+	}
+
+	/** Sets the executor listeners are notified on, see {@link AbstractControllerManager#setDispatchExecutor(Executor)}. Has no
+	 * effect if the active manager does not support it. */
+	static public void setDispatchExecutor (Executor executor) {
+		AbstractControllerManager manager = getAbstractManager();
+		if (manager != null) manager.setDispatchExecutor(executor);
+	}
+
+	/** Suspends or resumes input handling, e.g. while the window is unfocused, see
+	 * {@link AbstractControllerManager#setSuspended(boolean)}. Has no effect if the active manager does not support it. */
+	static public void setSuspended (boolean suspended) {
+		AbstractControllerManager manager = getAbstractManager();
+		if (manager != null) manager.setSuspended(suspended);
+	}
+
+	/** Add a {@link ControllerBatchListener} receiving all controller events of a frame at once. Has no effect if the active
+	 * manager does not support it. */
+	static public void addBatchListener (ControllerBatchListener listener) {
+		AbstractControllerManager manager = getAbstractManager();
+		if (manager != null) manager.addBatchListener(listener);
+	}
+
+	static public void removeBatchListener (ControllerBatchListener listener) {
+		AbstractControllerManager manager = getAbstractManager();
+		if (manager != null) manager.removeBatchListener(listener);
+	}
+
+	/** Enables or disables publishing of controller snapshots, see {@link AbstractControllerManager#setPublishSnapshots(boolean)}.
+	 * Has no effect if the active manager does not support it. */
+	static public void setPublishSnapshots (boolean publishSnapshots) {
+		AbstractControllerManager manager = getAbstractManager();
+		if (manager != null) manager.setPublishSnapshots(publishSnapshots);
+	}
+
+	/** @return latest published snapshot of the controller, or null if there is none. May be called from any thread once
+	 *         snapshots were enabled with {@link #setPublishSnapshots(boolean)}. */
+	static public ControllerSnapshot getSnapshot (Controller controller) {
+		AbstractControllerManager manager = getAbstractManager();
+		return manager != null ? manager.getSnapshot(controller) : null;
+	}
+
+	/** @return the registry of global listeners, or null if the active manager does not keep one */
+	static ListenerRegistry getListenerRegistry () {
+		AbstractControllerManager manager = getAbstractManager();
+		return manager != null ? manager.getListenerRegistry() : null;
+	}
+
+	/** @return the active manager if it is an {@link AbstractControllerManager}, null otherwise */
+	static AbstractControllerManager getAbstractManager () {
+		initialize();
+		ControllerManager manager = getManager();
+		return manager instanceof AbstractControllerManager ? (AbstractControllerManager)manager : null;
+	}
+
 	static private ControllerManager getManager () {
 		return managers.get(Gdx.app);
 	}
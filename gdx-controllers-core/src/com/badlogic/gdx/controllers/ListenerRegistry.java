@@ -0,0 +1,164 @@
+package com.badlogic.gdx.controllers;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Copy-on-write set of {@link ControllerListener} instances used by managers and controllers to
+ * notify their listeners. Adding or removing a listener copies the backing array and publishes the
+ * copy, so notification iterates a stable snapshot without taking a lock or allocating an iterator.
+ * Registration may happen on any thread; changes made while an event is being delivered take
+ * effect with the next event.
+ */
+public class ListenerRegistry {
+	private static final ControllerListener[] EMPTY = new ControllerListener[0];
+
+	private volatile ControllerListener[] snapshot = EMPTY;
+
+	/**
+	 * Adds the listener if it is not already registered
+	 *
+	 * @return true if the listener was added
+	 */
+	public synchronized boolean add(ControllerListener listener) {
+		ControllerListener[] current = snapshot;
+		if (indexOf(current, listener) >= 0)
+			return false;
+
+		ControllerListener[] copy = new ControllerListener[current.length + 1];
+		System.arraycopy(current, 0, copy, 0, current.length);
+		copy[current.length] = listener;
+		publish(copy);
+		return true;
+	}
+
+	/**
+	 * @return true if the listener was registered and is now removed
+	 */
+	public synchronized boolean remove(ControllerListener listener) {
+		ControllerListener[] current = snapshot;
+		int index = indexOf(current, listener);
+		if (index < 0)
+			return false;
+
+		ControllerListener[] copy = new ControllerListener[current.length - 1];
+		System.arraycopy(current, 0, copy, 0, index);
+		System.arraycopy(current, index + 1, copy, index, current.length - index - 1);
+		publish(copy);
+		return true;
+	}
+
+	public synchronized void clear() {
+		publish(EMPTY);
+	}
+
+	public int size() {
+		return snapshot.length;
+	}
+
+	/**
+	 * @return the current listeners. The returned array is shared and must not be modified, but it is
+	 * never changed after being returned, so it can be iterated without synchronization.
+	 */
+	public ControllerListener[] getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * @return a copy of the current listeners, for implementing {@link ControllerManager#getListeners()}.
+	 * Modifying it doesn't change the registered listeners.
+	 */
+	public Array<ControllerListener> asArray() {
+		return new Array<>(snapshot);
+	}
+
+	public void notifyConnected(Controller controller) {
+		for (ControllerListener listener : snapshot)
+			listener.connected(controller);
+	}
+
+	public void notifyDisconnected(Controller controller) {
+		for (ControllerListener listener : snapshot)
+			listener.disconnected(controller);
+	}
+
+	/**
+	 * Notifies with the current time and a new sequence number, see
+	 * {@link #notifyButtonDown(Controller, int, long, long)}
+	 */
+	public boolean notifyButtonDown(Controller controller, int buttonCode) {
+		return notifyButtonDown(controller, buttonCode, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+	}
+
+	/**
+	 * Notifies with the current time and a new sequence number, see
+	 * {@link #notifyButtonUp(Controller, int, long, long)}
+	 */
+	public boolean notifyButtonUp(Controller controller, int buttonCode) {
+		return notifyButtonUp(controller, buttonCode, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+	}
+
+	/**
+	 * Notifies with the current time and a new sequence number, see
+	 * {@link #notifyAxisMoved(Controller, int, float, long, long)}
+	 */
+	public boolean notifyAxisMoved(Controller controller, int axisCode, float value) {
+		return notifyAxisMoved(controller, axisCode, value, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+	}
+
+	/**
+	 * @return true if a listener handled the event, in which case the remaining listeners were skipped
+	 * @see TimedControllerListener
+	 */
+	public boolean notifyButtonDown(Controller controller, int buttonCode, long timeNanos, long sequence) {
+		for (ControllerListener listener : snapshot) {
+			if (ControllerEvents.buttonDown(listener, controller, buttonCode, timeNanos, sequence))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if a listener handled the event, in which case the remaining listeners were skipped
+	 * @see TimedControllerListener
+	 */
+	public boolean notifyButtonUp(Controller controller, int buttonCode, long timeNanos, long sequence) {
+		for (ControllerListener listener : snapshot) {
+			if (ControllerEvents.buttonUp(listener, controller, buttonCode, timeNanos, sequence))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if a listener handled the event, in which case the remaining listeners were skipped
+	 * @see TimedControllerListener
+	 */
+	public boolean notifyAxisMoved(Controller controller, int axisCode, float value, long timeNanos, long sequence) {
+		for (ControllerListener listener : snapshot) {
+			if (ControllerEvents.axisMoved(listener, controller, axisCode, value, timeNanos, sequence))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Notifies the listeners implementing {@link ControllerPowerLevelListener}
+	 */
+	public void notifyPowerLevelChanged(Controller controller, ControllerPowerLevel powerLevel) {
+		for (ControllerListener listener : snapshot)
+			ControllerEvents.powerLevelChanged(listener, controller, powerLevel);
+	}
+
+	private void publish(ControllerListener[] listeners) {
+		snapshot = listeners;
+	}
+
+	private static int indexOf(ControllerListener[] listeners, ControllerListener listener) {
+		for (int i = 0; i < listeners.length; i++) {
+			if (listeners[i] == listener)
+				return i;
+		}
+		return -1;
+	}
+}
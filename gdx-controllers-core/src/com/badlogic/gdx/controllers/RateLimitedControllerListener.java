@@ -0,0 +1,215 @@
+package com.badlogic.gdx.controllers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Wraps a {@link ControllerListener} and limits the rate of axis events it receives per controller
+ * and axis. Axis events arriving faster than the configured rate are not delivered immediately; the
+ * latest value is kept and delivered once the interval elapsed, so the final position of an axis is
+ * never lost. Connection and button events are always passed through.
+ * <p>
+ * Deferred axis events are not handed to the wrapped listener synchronously, so this listener
+ * returns false for them and does not prevent other listeners from receiving the event.
+ * <p>
+ * If the wrapped listener is a {@link TimedControllerListener}, it receives the original timestamp
+ * and sequence number of every event, including deferred ones.
+ * <p>
+ * Deferred events are checked once per frame and delivered on the thread the manager dispatches
+ * on, the rendering thread or its {@link AbstractControllerManager#setDispatchExecutor(Executor) dispatch
+ * executor}. Deferred events are synchronized with axis events being received, so events of
+ * an executor with multiple threads neither corrupt the deferred values nor overtake each other.
+ */
+public class RateLimitedControllerListener implements TimedControllerListener, ControllerPowerLevelListener {
+	private final ControllerListener listener;
+	private final long minIntervalNanos;
+	private final ObjectMap<Controller, AxisRates> rates = new ObjectMap<>();
+	// guards rates and flushPosted, held while calling the wrapped listener
+	private final Object lock = new Object();
+	private boolean flushPosted;
+	private final Runnable flushPending = new Runnable() {
+		@Override
+		public void run() {
+			flushPending();
+		}
+	};
+	// runs once per frame on the rendering thread and hands the flush to the dispatch thread
+	private final Runnable postedFlush = new Runnable() {
+		@Override
+		public void run() {
+			AbstractControllerManager manager = Controllers.getAbstractManager();
+			Executor executor = manager != null ? manager.getDispatchExecutor() : null;
+			if (executor != null)
+				executor.execute(flushPending);
+			else
+				flushPending();
+		}
+	};
+
+	/**
+	 * @param maxAxisEventsPerSecond maximum number of events delivered per second for each axis of
+	 *                               each controller
+	 */
+	public RateLimitedControllerListener(ControllerListener listener, float maxAxisEventsPerSecond) {
+		if (maxAxisEventsPerSecond <= 0)
+			throw new IllegalArgumentException("maxAxisEventsPerSecond must be > 0: " + maxAxisEventsPerSecond);
+
+		this.listener = listener;
+		this.minIntervalNanos = (long) (1000000000L / maxAxisEventsPerSecond);
+	}
+
+	public ControllerListener getListener() {
+		return listener;
+	}
+
+	@Override
+	public void connected(Controller controller) {
+		listener.connected(controller);
+	}
+
+	@Override
+	public void disconnected(Controller controller) {
+		synchronized (lock) {
+			rates.remove(controller);
+			listener.disconnected(controller);
+		}
+	}
+
+	@Override
+	public void powerLevelChanged(Controller controller, ControllerPowerLevel powerLevel) {
+		ControllerEvents.powerLevelChanged(listener, controller, powerLevel);
+	}
+
+	@Override
+	public boolean buttonDown(Controller controller, int buttonCode) {
+		return buttonDown(controller, buttonCode, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+	}
+
+	@Override
+	public boolean buttonUp(Controller controller, int buttonCode) {
+		return buttonUp(controller, buttonCode, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+	}
+
+	@Override
+	public boolean axisMoved(Controller controller, int axisCode, float value) {
+		return axisMoved(controller, axisCode, value, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+	}
+
+	@Override
+	public boolean buttonDown(Controller controller, int buttonCode, long timeNanos, long sequence) {
+		return ControllerEvents.buttonDown(listener, controller, buttonCode, timeNanos, sequence);
+	}
+
+	@Override
+	public boolean buttonUp(Controller controller, int buttonCode, long timeNanos, long sequence) {
+		return ControllerEvents.buttonUp(listener, controller, buttonCode, timeNanos, sequence);
+	}
+
+	@Override
+	public boolean axisMoved(Controller controller, int axisCode, float value, long timeNanos, long sequence) {
+		if (axisCode < 0)
+			return ControllerEvents.axisMoved(listener, controller, axisCode, value, timeNanos, sequence);
+
+		synchronized (lock) {
+			return axisMovedLocked(controller, axisCode, value, timeNanos, sequence);
+		}
+	}
+
+	private boolean axisMovedLocked(Controller controller, int axisCode, float value, long timeNanos, long sequence) {
+		AxisRates axisRates = rates.get(controller);
+		if (axisRates == null) {
+			axisRates = new AxisRates();
+			rates.put(controller, axisRates);
+		}
+		axisRates.ensureCapacity(axisCode + 1);
+
+		long now = TimeUtils.nanoTime();
+		if (now - axisRates.lastDelivery[axisCode] >= minIntervalNanos) {
+			axisRates.pending[axisCode] = false;
+			axisRates.lastDelivery[axisCode] = now;
+			return ControllerEvents.axisMoved(listener, controller, axisCode, value, timeNanos, sequence);
+		}
+
+		axisRates.pendingValues[axisCode] = value;
+		axisRates.pendingTimes[axisCode] = timeNanos;
+		axisRates.pendingSequences[axisCode] = sequence;
+		axisRates.pending[axisCode] = true;
+		postFlush();
+		return false;
+	}
+
+	/**
+	 * Must be called holding the lock
+	 */
+	private void postFlush() {
+		if (!flushPosted) {
+			flushPosted = true;
+			Gdx.app.postRunnable(postedFlush);
+		}
+	}
+
+	private void flushPending() {
+		synchronized (lock) {
+			flushPosted = false;
+			flushPendingLocked();
+		}
+	}
+
+	private void flushPendingLocked() {
+		long now = TimeUtils.nanoTime();
+		boolean stillPending = false;
+		for (ObjectMap.Entry<Controller, AxisRates> entry : rates) {
+			AxisRates axisRates = entry.value;
+			for (int axisCode = 0; axisCode < axisRates.pending.length; axisCode++) {
+				if (!axisRates.pending[axisCode])
+					continue;
+
+				if (now - axisRates.lastDelivery[axisCode] >= minIntervalNanos) {
+					axisRates.pending[axisCode] = false;
+					axisRates.lastDelivery[axisCode] = now;
+					ControllerEvents.axisMoved(listener, entry.key, axisCode, axisRates.pendingValues[axisCode],
+						axisRates.pendingTimes[axisCode], axisRates.pendingSequences[axisCode]);
+				} else {
+					stillPending = true;
+				}
+			}
+		}
+
+		if (stillPending)
+			postFlush();
+	}
+
+	private static class AxisRates {
+		long[] lastDelivery = new long[0];
+		float[] pendingValues = new float[0];
+		long[] pendingTimes = new long[0];
+		long[] pendingSequences = new long[0];
+		boolean[] pending = new boolean[0];
+
+		void ensureCapacity(int axisCount) {
+			if (axisCount <= pending.length)
+				return;
+
+			long[] newLastDelivery = new long[axisCount];
+			float[] newPendingValues = new float[axisCount];
+			long[] newPendingTimes = new long[axisCount];
+			long[] newPendingSequences = new long[axisCount];
+			boolean[] newPending = new boolean[axisCount];
+			System.arraycopy(lastDelivery, 0, newLastDelivery, 0, lastDelivery.length);
+			System.arraycopy(pendingValues, 0, newPendingValues, 0, pendingValues.length);
+			System.arraycopy(pendingTimes, 0, newPendingTimes, 0, pendingTimes.length);
+			System.arraycopy(pendingSequences, 0, newPendingSequences, 0, pendingSequences.length);
+			System.arraycopy(pending, 0, newPending, 0, pending.length);
+			for (int i = lastDelivery.length; i < axisCount; i++)
+				newLastDelivery[i] = Long.MIN_VALUE / 2;
+			lastDelivery = newLastDelivery;
+			pendingValues = newPendingValues;
+			pendingTimes = newPendingTimes;
+			pendingSequences = newPendingSequences;
+			pending = newPending;
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package com.badlogic.gdx.controllers;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.Timer;
+
+/**
+ * Mixes the rumble effects played on one controller and drives its motors at a fixed tick.
+ * Implementations route {@link Controller#startVibration(int, float)} through it, so effects
+ * started by independent parts of a game overlap instead of the last call winning.
+ * <p>
+ * Of the running effects with the highest priority, the strongest one determines the output.
+ * Effects may fade in and out with attack and decay envelopes, which are rendered once per tick.
+ * The output is sent to the native backend at most once per tick and only if it changed, so
+ * starting any number of effects within a tick results in a single native command. Each command
+ * lasts until the output is known to change, plus one tick, so a constant output is sent once.
+ * <p>
+ * Ticks run on the rendering thread, the scheduler must only be used on the rendering thread.
+ */
+public class RumbleScheduler {
+	public static final int DEFAULT_TICK_MILLIS = 16;
+
+	private final Output output;
+	private final int tickMillis;
+	private final Array<Effect> effects = new Array<>(false, 4);
+	private final Array<Effect> freeEffects = new Array<>(false, 4);
+	private int lastEffectId;
+	private float sentStrength;
+	private long sentUntil;
+	private final Timer.Task tick = new Timer.Task() {
+		@Override
+		public void run() {
+			tick();
+		}
+	};
+
+	public RumbleScheduler(Output output) {
+		this(output, DEFAULT_TICK_MILLIS);
+	}
+
+	/**
+	 * @param tickMillis interval of envelope rendering and native updates
+	 */
+	public RumbleScheduler(Output output, int tickMillis) {
+		if (tickMillis <= 0)
+			throw new IllegalArgumentException("tickMillis must be > 0: " + tickMillis);
+
+		this.output = output;
+		this.tickMillis = tickMillis;
+	}
+
+	/**
+	 * Plays an effect with constant strength and default priority 0
+	 *
+	 * @return id of the effect for {@link #stop(int)}, or 0 if nothing is played
+	 */
+	public int play(float strength, int durationMillis) {
+		return play(strength, durationMillis, 0, 0, 0);
+	}
+
+	/**
+	 * Plays an effect, starting with the next tick
+	 *
+	 * @param strength       peak strength from 0 to 1
+	 * @param durationMillis total duration, including attack and decay
+	 * @param attackMillis   time to ramp up from 0 to the peak strength at the start
+	 * @param decayMillis    time to ramp down from the peak strength to 0 at the end
+	 * @param priority       effects of lower priority are muted while effects of higher priority
+	 *                       run
+	 * @return id of the effect for {@link #stop(int)}, or 0 if nothing is played
+	 */
+	public int play(float strength, int durationMillis, int attackMillis, int decayMillis, int priority) {
+		if (strength <= 0 || durationMillis <= 0)
+			return 0;
+
+		Effect effect = freeEffects.size > 0 ? freeEffects.pop() : new Effect();
+		lastEffectId = lastEffectId == Integer.MAX_VALUE ? 1 : lastEffectId + 1;
+		effect.id = lastEffectId;
+		effect.strength = Math.min(strength, 1);
+		effect.startTime = TimeUtils.millis();
+		effect.duration = durationMillis;
+		effect.attack = Math.max(0, attackMillis);
+		effect.decay = Math.max(0, decayMillis);
+		effect.priority = priority;
+		effects.add(effect);
+		schedule();
+		return effect.id;
+	}
+
+	/**
+	 * Stops an effect, the output changes with the next tick
+	 */
+	public void stop(int effectId) {
+		for (int i = 0; i < effects.size; i++) {
+			if (effects.get(i).id == effectId) {
+				freeEffects.add(effects.removeIndex(i));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Stops all effects, the motors are stopped with the next tick
+	 */
+	public void stopAll() {
+		freeEffects.addAll(effects);
+		effects.clear();
+	}
+
+	/**
+	 * Forgets all effects without sending anything, e.g. because the controller was disconnected
+	 */
+	public void clear() {
+		stopAll();
+		tick.cancel();
+		sentStrength = 0;
+		sentUntil = 0;
+	}
+
+	/**
+	 * @return true if an effect is running, even if it is muted by effects of higher priority
+	 */
+	public boolean isPlaying() {
+		long now = TimeUtils.millis();
+		for (int i = 0; i < effects.size; i++) {
+			Effect effect = effects.get(i);
+			if (now - effect.startTime < effect.duration)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return strength last sent to the native backend
+	 */
+	public float getStrength() {
+		return sentStrength;
+	}
+
+	public int getTickMillis() {
+		return tickMillis;
+	}
+
+	private void schedule() {
+		if (!tick.isScheduled())
+			Timer.schedule(tick, 0, tickMillis / 1000f);
+	}
+
+	private void tick() {
+		long now = TimeUtils.millis();
+		float strength = 0;
+		int priority = Integer.MIN_VALUE;
+		// time at which the output changes next without new effects
+		long holdUntil = Long.MAX_VALUE;
+		for (int i = effects.size - 1; i >= 0; i--) {
+			Effect effect = effects.get(i);
+			long elapsed = now - effect.startTime;
+			if (elapsed >= effect.duration) {
+				freeEffects.add(effects.removeIndex(i));
+				continue;
+			}
+			holdUntil = Math.min(holdUntil, effect.getNextChange(now, elapsed));
+			if (effect.priority < priority)
+				continue;
+
+			float value = effect.getStrength(elapsed);
+			if (effect.priority > priority) {
+				priority = effect.priority;
+				strength = value;
+			} else {
+				strength = Math.max(strength, value);
+			}
+		}
+
+		send(now, strength, holdUntil);
+		if (effects.size == 0 && sentStrength == 0)
+			tick.cancel();
+	}
+
+	private void send(long now, float strength, long holdUntil) {
+		if (strength == sentStrength && (strength == 0 || holdUntil <= sentUntil))
+			return;
+
+		if (strength == 0) {
+			sentStrength = 0;
+			sentUntil = 0;
+			output.rumble(0, 0);
+			return;
+		}
+		// one more tick, so the motors don't stop before the next command arrives
+		int duration = (int) Math.min(Integer.MAX_VALUE, holdUntil - now + tickMillis);
+		sentStrength = strength;
+		sentUntil = now + duration;
+		output.rumble(strength, duration);
+	}
+
+	/**
+	 * Native rumble of a controller
+	 */
+	public interface Output {
+		/**
+		 * Sets the strength of the motors, replacing the last command
+		 *
+		 * @param strength       strength from 0 to 1, 0 stops the motors
+		 * @param durationMillis time after which the motors stop if no other command is sent
+		 */
+		void rumble(float strength, int durationMillis);
+	}
+
+	private static class Effect {
+		int id;
+		float strength;
+		long startTime;
+		int duration;
+		int attack;
+		int decay;
+		int priority;
+
+		float getStrength(long elapsed) {
+			float value = strength;
+			if (elapsed < attack)
+				value = Math.min(value, strength * elapsed / attack);
+			long remaining = duration - elapsed;
+			if (remaining < decay)
+				value = Math.min(value, strength * remaining / decay);
+			return value;
+		}
+
+		/**
+		 * @return time at which the strength changes next, now while it ramps up or down
+		 */
+		long getNextChange(long now, long elapsed) {
+			if (elapsed < attack)
+				return now;
+			long decayStart = duration - decay;
+			return elapsed < decayStart ? startTime + decayStart : now;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.badlogic.gdx.controllers;
+
+/**
+ * A base implementation for {@link TimedControllerListener}. The timed methods forward to the plain
+ * ones, so subclasses override only the variant they are interested in.
+ */
+public class TimedControllerAdapter extends ControllerAdapter implements TimedControllerListener {
+	@Override
+	public boolean buttonDown (Controller controller, int buttonCode, long timeNanos, long sequence) {
+		return buttonDown(controller, buttonCode);
+	}
+
+	@Override
+	public boolean buttonUp (Controller controller, int buttonCode, long timeNanos, long sequence) {
+		return buttonUp(controller, buttonCode);
+	}
+
+	@Override
+	public boolean axisMoved (Controller controller, int axisCode, float value, long timeNanos, long sequence) {
+		return axisMoved(controller, axisCode, value);
+	}
+}
@@ -0,0 +1,32 @@
+package com.badlogic.gdx.controllers;
+
+/**
+ * {@link ControllerListener} that additionally receives when an event happened and its position in the
+ * global event order. Listeners implementing this interface get the timed methods called instead of
+ * the plain ones, plain listeners keep working unchanged.
+ * <p>
+ * The timestamp is a monotonic nanosecond value taken as close to the source of the event as the
+ * platform allows: the event time of the {@code KeyEvent} or {@code MotionEvent} on Android (same time
+ * base as {@link System#nanoTime()}), the gamepad timestamp on GWT (same time base as
+ * {@code performance.now()}) and the poll or notification time, as returned by
+ * {@link com.badlogic.gdx.utils.TimeUtils#nanoTime()}, on other platforms. The sequence number is
+ * increased for every event of every controller, so it orders events that carry the same timestamp.
+ *
+ * @see TimedControllerAdapter
+ */
+public interface TimedControllerListener extends ControllerListener {
+	/**
+	 * @see ControllerListener#buttonDown(Controller, int)
+	 */
+	public boolean buttonDown (Controller controller, int buttonCode, long timeNanos, long sequence);
+
+	/**
+	 * @see ControllerListener#buttonUp(Controller, int)
+	 */
+	public boolean buttonUp (Controller controller, int buttonCode, long timeNanos, long sequence);
+
+	/**
+	 * @see ControllerListener#axisMoved(Controller, int, float)
+	 */
+	public boolean axisMoved (Controller controller, int axisCode, float value, long timeNanos, long sequence);
+}
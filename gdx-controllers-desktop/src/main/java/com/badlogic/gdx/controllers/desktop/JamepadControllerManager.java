@@ -1,74 +1,207 @@
 package com.badlogic.gdx.controllers.desktop;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.LifecycleListener;
 import com.badlogic.gdx.controllers.AbstractControllerManager;
 import com.badlogic.gdx.controllers.Controller;
 import com.badlogic.gdx.controllers.ControllerAdapter;
-import com.badlogic.gdx.controllers.ControllerListener;
+import com.badlogic.gdx.controllers.ControllerBatchListener;
+import com.badlogic.gdx.controllers.ControllerEventBatch;
 import com.badlogic.gdx.controllers.desktop.support.CompositeControllerListener;
+import com.badlogic.gdx.controllers.desktop.support.ControllerMetricsBean;
 import com.badlogic.gdx.controllers.desktop.support.JamepadControllerMonitor;
+import com.badlogic.gdx.controllers.desktop.support.JamepadMappingDatabase;
 import com.badlogic.gdx.controllers.desktop.support.JamepadShutdownHook;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
 
 public class JamepadControllerManager extends AbstractControllerManager implements Disposable {
     // assign a Jamepad configuration to this field at game startup to override defaults
     public static com.studiohartman.jamepad.Configuration jamepadConfiguration;
+    // set to true at game startup to publish the controller metrics as JMX MBean. Off by default, as the first
+    // registration starts the platform MBean server, which slows down startup.
+    public static boolean registerMetricsMBean = false;
+    // set to a rate in Hz (e.g. 1000) at game startup to poll controllers on a background thread instead of
+    // once per frame. Listeners are still notified on the render thread, with the timestamps of the polls.
+    public static float backgroundPollingRate = 0;
+    // set to a time in ms at game startup to poll controllers without input for that long at idlePollingRate only
+    public static long idleControllerTimeout = 0;
+    public static float idlePollingRate = 10;
+    // set to true at game startup to load the native library and initialize SDL on a background thread. Until
+    // done, getControllers() is empty, then a connected event is fired for every controller found.
+    public static boolean asyncInitialization = false;
+    // set to true at game startup to record the bytes allocated by every poll in the metrics, to verify that
+    // polling doesn't allocate once controllers are connected
+    public static boolean measureAllocations = false;
+
+    // Jamepad defaults to 4, every index only costs a reconnect attempt when a device is added or removed
+    private static final int DEFAULT_MAX_CONTROLLERS = 16;
 
     private static boolean nativeLibInitialized = false;
-    private static com.studiohartman.jamepad.ControllerManager controllerManager;
+    private static volatile com.studiohartman.jamepad.ControllerManager controllerManager;
+    private static JamepadControllerMonitor monitor;
+    private static boolean disposed;
 
-    private final CompositeControllerListener compositeListener = new CompositeControllerListener();
+    // forwards the events of the monitor to the listeners of this manager
+    private final CompositeControllerListener compositeListener = new CompositeControllerListener(listeners);
+    private ControllerMetricsBean metricsBean;
 
     public JamepadControllerManager() {
-        compositeListener.addListener(new ManageControllers());
+        listeners.add(new ManageControllers());
 
         if (!nativeLibInitialized) {
+            // registered before initializing, so a pause during background initialization is kept
+            Gdx.app.addLifecycleListener(new LifecycleListener() {
+                @Override
+                public void pause() {
+                    setLifecyclePaused(true);
+                }
+
+                @Override
+                public void resume() {
+                    setLifecyclePaused(false);
+                }
+
+                @Override
+                public void dispose() {
+                }
+            });
+
             if (jamepadConfiguration == null) {
                 jamepadConfiguration = new com.studiohartman.jamepad.Configuration();
+                jamepadConfiguration.maxNumControllers = DEFAULT_MAX_CONTROLLERS;
+            }
+
+            if (asyncInitialization) {
+                Thread initThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            initNative();
+                        } catch (Throwable t) {
+                            Gdx.app.error("Jamepad", "Couldn't initialize Jamepad", t);
+                            return;
+                        }
+                        Gdx.app.postRunnable(new Runnable() {
+                            @Override
+                            public void run() {
+                                startMonitor();
+                            }
+                        });
+                    }
+                }, "Jamepad init");
+                initThread.setDaemon(true);
+                initThread.start();
+            } else {
+                initNative();
+                startMonitor();
             }
-            String mappingsPath = "gamecontrollerdb.txt";
 
+            nativeLibInitialized = true;
+        }
+    }
 
-            controllerManager = new com.studiohartman.jamepad.ControllerManager(jamepadConfiguration, mappingsPath);
-            controllerManager.initSDLGamepad();
+    /**
+     * Extracts and loads the native library, initializes SDL and parses the mapping database
+     */
+    private static void initNative() {
+        String mappingsPath = JamepadMappingDatabase.getMappingsPath("gamecontrollerdb.txt");
 
-            JamepadControllerMonitor monitor = new JamepadControllerMonitor(controllerManager, compositeListener);
-            monitor.run();
+        com.studiohartman.jamepad.ControllerManager manager =
+                new com.studiohartman.jamepad.ControllerManager(jamepadConfiguration, mappingsPath);
+        manager.initSDLGamepad();
+        controllerManager = manager;
+    }
 
-            Gdx.app.addLifecycleListener(new JamepadShutdownHook(controllerManager));
-            Gdx.app.postRunnable(monitor);
+    private void startMonitor() {
+        if (disposed) {
+            // disposed while initializing in the background
+            controllerManager.quitSDLGamepad();
+            return;
+        }
 
-            nativeLibInitialized = true;
+        monitor = new JamepadControllerMonitor(controllerManager, compositeListener,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        publishSnapshots();
+                    }
+                },
+                new ControllerBatchListener() {
+                    @Override
+                    public void eventsReceived(ControllerEventBatch batch) {
+                        notifyBatchListeners(batch);
+                    }
+                });
+        monitor.setMetrics(metrics);
+        monitor.setMaxControllers(jamepadConfiguration.maxNumControllers);
+        monitor.setIdlePolling(idleControllerTimeout, idlePollingRate);
+        monitor.setCoalesceAxisEvents(isCoalesceAxisEvents());
+        if (measureAllocations && !monitor.setMeasureAllocations(true)) {
+            Gdx.app.log("Jamepad", "Allocations can't be measured on this JVM");
+        }
+        // suspended while initializing in the background
+        monitor.setSuspended(isSuspended());
+        if (backgroundPollingRate > 0) {
+            monitor.startPollingThread(backgroundPollingRate);
         }
+        monitor.run();
+
+        if (registerMetricsMBean) {
+            metricsBean = new ControllerMetricsBean(metrics);
+            try {
+                metricsBean.register();
+            } catch (Throwable t) {
+                metricsBean = null;
+                Gdx.app.log("Jamepad", "Couldn't register controller metrics MBean: " + t.getMessage());
+            }
+        }
+
+        Gdx.app.addLifecycleListener(new JamepadShutdownHook(controllerManager, monitor));
+        Gdx.app.postRunnable(monitor);
     }
 
     @Override
-    public void addListener(ControllerListener listener) {
-        compositeListener.addListener(listener);
+    public void clearListeners() {
+        listeners.clear();
+        listeners.add(new ManageControllers());
     }
 
     @Override
-    public void removeListener(ControllerListener listener) {
-        compositeListener.removeListener(listener);
+    public void setCoalesceAxisEvents(boolean coalesceAxisEvents) {
+        super.setCoalesceAxisEvents(coalesceAxisEvents);
+        if (monitor != null) {
+            monitor.setCoalesceAxisEvents(coalesceAxisEvents);
+        }
     }
 
     @Override
-    public Array<ControllerListener> getListeners() {
-        Array<ControllerListener> array = new Array<>();
-        array.add(compositeListener);
-        return array;
+    protected void suspendPolling() {
+        if (monitor != null) {
+            monitor.setSuspended(true);
+        }
     }
 
     @Override
-    public void clearListeners() {
-        compositeListener.clear();
-        compositeListener.addListener(new ManageControllers());
+    protected void resumePolling() {
+        if (monitor != null) {
+            monitor.setSuspended(false);
+        }
     }
 
     @Override
     public void dispose() {
-        controllerManager.quitSDLGamepad();
+        if (metricsBean != null) {
+            metricsBean.unregister();
+            metricsBean = null;
+        }
+        disposed = true;
+        if (monitor != null && !monitor.stopPollingThread()) {
+            Gdx.app.error("Jamepad", "Polling thread didn't stop, SDL is left running");
+            return;
+        }
+        if (controllerManager != null) {
+            controllerManager.quitSDLGamepad();
+        }
     }
 
     /**
@@ -77,7 +210,9 @@ public class JamepadControllerManager extends AbstractControllerManager implemen
      * Use for debugging purposes.
      */
     public static void logLastNativeGamepadError() {
-        Gdx.app.error("Jamepad", controllerManager.getLastNativeError());
+        if (controllerManager != null) {
+            Gdx.app.error("Jamepad", controllerManager.getLastNativeError());
+        }
     }
 
     private class ManageControllers extends ManageCurrentControllerListener {
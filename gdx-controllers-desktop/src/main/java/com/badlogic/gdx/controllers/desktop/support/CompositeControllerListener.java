@@ -2,54 +2,71 @@ package com.badlogic.gdx.controllers.desktop.support;
 
 import com.badlogic.gdx.controllers.Controller;
 import com.badlogic.gdx.controllers.ControllerListener;
+import com.badlogic.gdx.controllers.ControllerPowerLevel;
+import com.badlogic.gdx.controllers.ControllerPowerLevelListener;
+import com.badlogic.gdx.controllers.ListenerRegistry;
+import com.badlogic.gdx.controllers.TimedControllerListener;
 
-import java.util.LinkedList;
+/**
+ * Forwards the events of a controller or manager to the listeners of a {@link ListenerRegistry}
+ */
+public class CompositeControllerListener implements TimedControllerListener, ControllerPowerLevelListener {
+    private final ListenerRegistry listeners;
 
-public class CompositeControllerListener implements ControllerListener {
-    private final LinkedList<ControllerListener> listeners = new LinkedList<>();
+    public CompositeControllerListener() {
+        this(new ListenerRegistry());
+    }
+
+    /**
+     * @param listeners registry to forward to, e.g. the one of a manager
+     */
+    public CompositeControllerListener(ListenerRegistry listeners) {
+        this.listeners = listeners;
+    }
 
     @Override
     public void connected(Controller controller) {
-        for (ControllerListener listener : listeners) {
-            listener.connected(controller);
-        }
+        listeners.notifyConnected(controller);
     }
 
     @Override
     public void disconnected(Controller controller) {
-        for (ControllerListener listener : listeners) {
-            listener.disconnected(controller);
-        }
+        listeners.notifyDisconnected(controller);
+    }
+
+    @Override
+    public void powerLevelChanged(Controller controller, ControllerPowerLevel powerLevel) {
+        listeners.notifyPowerLevelChanged(controller, powerLevel);
     }
 
     @Override
     public boolean buttonDown(final Controller controller, final int buttonCode) {
-        for (ControllerListener listener : listeners) {
-            if (listener.buttonDown(controller, buttonCode)) {
-                return true;
-            }
-        }
-        return false;
+        return listeners.notifyButtonDown(controller, buttonCode);
     }
 
     @Override
     public boolean buttonUp(final Controller controller, final int buttonCode) {
-        for (ControllerListener listener : listeners) {
-            if (listener.buttonUp(controller, buttonCode)) {
-                return true;
-            }
-        }
-        return false;
+        return listeners.notifyButtonUp(controller, buttonCode);
     }
 
     @Override
     public boolean axisMoved(final Controller controller, final int axisCode, final float value) {
-        for (ControllerListener listener : listeners) {
-            if (listener.axisMoved(controller, axisCode, value)) {
-                return true;
-            }
-        }
-        return false;
+        return listeners.notifyAxisMoved(controller, axisCode, value);
+    }
+
+    @Override
+    public boolean buttonDown(Controller controller, int buttonCode, long timeNanos, long sequence) {
+        return listeners.notifyButtonDown(controller, buttonCode, timeNanos, sequence);
+    }
+
+    @Override
+    public boolean buttonUp(Controller controller, int buttonCode, long timeNanos, long sequence) {
+        return listeners.notifyButtonUp(controller, buttonCode, timeNanos, sequence);
+    }
+
+    @Override
+    public boolean axisMoved(Controller controller, int axisCode, float value, long timeNanos, long sequence) {
+        return listeners.notifyAxisMoved(controller, axisCode, value, timeNanos, sequence);
     }
 
     public void addListener(ControllerListener listener) {
@@ -0,0 +1,147 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+import com.badlogic.gdx.controllers.Controller;
+import com.badlogic.gdx.controllers.ControllerEventQueue;
+import com.badlogic.gdx.controllers.ControllerMetrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ControllerMetricsBean implements ControllerMetricsMXBean {
+    public static final String OBJECT_NAME = "com.badlogic.gdx.controllers:type=ControllerMetrics";
+
+    private final ControllerMetrics metrics;
+    private ObjectName registeredName;
+
+    public ControllerMetricsBean(ControllerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Registers the bean with the platform MBean server
+     *
+     * @throws JMException if registration failed, e.g. because a bean with the same name exists
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        server.registerMBean(this, name);
+        registeredName = name;
+    }
+
+    public void unregister() {
+        if (registeredName == null)
+            return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+        } catch (JMException e) {
+            // already gone
+        }
+        registeredName = null;
+    }
+
+    @Override
+    public float getButtonDownEventsPerSecond() {
+        return metrics.getEventsPerSecond(ControllerEventQueue.BUTTON_DOWN);
+    }
+
+    @Override
+    public float getButtonUpEventsPerSecond() {
+        return metrics.getEventsPerSecond(ControllerEventQueue.BUTTON_UP);
+    }
+
+    @Override
+    public float getAxisEventsPerSecond() {
+        return metrics.getEventsPerSecond(ControllerEventQueue.AXIS);
+    }
+
+    @Override
+    public long getButtonDownEventCount() {
+        return metrics.getEventCount(ControllerEventQueue.BUTTON_DOWN);
+    }
+
+    @Override
+    public long getButtonUpEventCount() {
+        return metrics.getEventCount(ControllerEventQueue.BUTTON_UP);
+    }
+
+    @Override
+    public long getAxisEventCount() {
+        return metrics.getEventCount(ControllerEventQueue.AXIS);
+    }
+
+    @Override
+    public long getConnectCount() {
+        return metrics.getConnectCount();
+    }
+
+    @Override
+    public long getDisconnectCount() {
+        return metrics.getDisconnectCount();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return metrics.getQueueDepth();
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        return metrics.getMaxQueueDepth();
+    }
+
+    @Override
+    public long getLastDispatchNanos() {
+        return metrics.getLastDispatchNanos();
+    }
+
+    @Override
+    public long getMaxDispatchNanos() {
+        return metrics.getMaxDispatchNanos();
+    }
+
+    @Override
+    public long getAverageDispatchNanos() {
+        return metrics.getAverageDispatchNanos();
+    }
+
+    @Override
+    public long getSkippedPollCount() {
+        return metrics.getSkippedPollCount();
+    }
+
+    @Override
+    public long getSavedPollNanos() {
+        return metrics.getSavedPollNanos();
+    }
+
+    @Override
+    public long getMaxAllocatedBytes() {
+        return metrics.getMaxAllocatedBytes();
+    }
+
+    @Override
+    public long getAllocatingPollCount() {
+        return metrics.getAllocatingPollCount();
+    }
+
+    @Override
+    public Map<String, Long> getPollNanos() {
+        Map<String, Long> pollNanos = new HashMap<>();
+        // unique ids are cached, so no native call is made from the JMX thread
+        for (Controller controller : metrics.getPolledControllers()) {
+            pollNanos.put(controller.getUniqueId(), metrics.getPollNanos(controller));
+        }
+        return pollNanos;
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset();
+    }
+}
@@ -0,0 +1,50 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link com.badlogic.gdx.controllers.ControllerMetrics}, registered by
+ * {@link com.badlogic.gdx.controllers.desktop.JamepadControllerManager}.
+ */
+public interface ControllerMetricsMXBean {
+    float getButtonDownEventsPerSecond();
+
+    float getButtonUpEventsPerSecond();
+
+    float getAxisEventsPerSecond();
+
+    long getButtonDownEventCount();
+
+    long getButtonUpEventCount();
+
+    long getAxisEventCount();
+
+    long getConnectCount();
+
+    long getDisconnectCount();
+
+    int getQueueDepth();
+
+    int getMaxQueueDepth();
+
+    long getLastDispatchNanos();
+
+    long getMaxDispatchNanos();
+
+    long getAverageDispatchNanos();
+
+    long getSkippedPollCount();
+
+    long getSavedPollNanos();
+
+    long getMaxAllocatedBytes();
+
+    long getAllocatingPollCount();
+
+    /**
+     * @return duration of the last poll in nanoseconds, by controller unique id
+     */
+    Map<String, Long> getPollNanos();
+
+    void reset();
+}
@@ -1,10 +1,13 @@
 package com.badlogic.gdx.controllers.desktop.support;
 
 import com.badlogic.gdx.controllers.Controller;
+import com.badlogic.gdx.controllers.ControllerEventQueue;
+import com.badlogic.gdx.controllers.ControllerEvents;
 import com.badlogic.gdx.controllers.ControllerListener;
 import com.badlogic.gdx.controllers.ControllerMapping;
 import com.badlogic.gdx.controllers.ControllerPowerLevel;
-import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.controllers.ControllerState;
+import com.badlogic.gdx.controllers.RumbleScheduler;
 import com.badlogic.gdx.utils.Logger;
 import com.badlogic.gdx.utils.TimeUtils;
 import com.studiohartman.jamepad.ControllerAxis;
@@ -15,79 +18,229 @@ import com.studiohartman.jamepad.ControllerUnpluggedException;
 import java.util.UUID;
 
 public class JamepadController implements Controller {
-    private static final IntMap<ControllerButton> CODE_TO_BUTTON = new IntMap<>(ControllerButton.values().length);
-    private static final IntMap<ControllerAxis> CODE_TO_AXIS = new IntMap<>(ControllerAxis.values().length);
+    // button and axis codes are the enum ordinals, values() clones the array on every call
+    private static final ControllerButton[] BUTTONS = ControllerButton.values();
+    private static final ControllerAxis[] AXES = ControllerAxis.values();
+    private static final ControllerPowerLevel[] POWER_LEVELS = ControllerPowerLevel.values();
     private static final Logger logger = new Logger(JamepadController.class.getSimpleName());
 
-    static {
-        for (ControllerButton button : ControllerButton.values()) {
-            CODE_TO_BUTTON.put(button.ordinal(), button);
-        }
-
-        for (ControllerAxis axis : ControllerAxis.values()) {
-            CODE_TO_AXIS.put(axis.ordinal(), axis);
-        }
-    }
-
     private final CompositeControllerListener compositeControllerListener = new CompositeControllerListener();
-    private final ControllerIndex controllerIndex;
-    private final IntMap<Boolean> buttonState = new IntMap<>();
-    private final IntMap<Float> axisState = new IntMap<>();
+    private final JamepadDevice device;
+    // bit i is set if BUTTONS[i] was pressed on the last update, owned by the polling thread
+    private long buttonState;
+    private final float[] axisState = new float[AXES.length];
+    // state as of the last event delivered to listeners, owned by the render thread. Runs behind the
+    // polled state while events wait in the ring, so the getters agree with the events being delivered.
+    private long dispatchedButtonState;
+    private final float[] dispatchedAxisState = new float[AXES.length];
+    private boolean dispatchedConnected = true;
+    private final float[] polledAxisState = new float[AXES.length];
+    // ring position of the latest queued event per axis, used by the render thread to coalesce
+    final long[] lastQueuedAxisPositions = new long[AXES.length];
     private final String uuid;
-    private boolean connected = true;
+    private long lastChangeNanos = TimeUtils.nanoTime();
+    private volatile boolean connected = true;
+    // set when polled on the background thread, events are then queued for the render thread
+    private JamepadEventRing eventRing;
+    // held around native calls made outside of update, which may run on the render thread while the
+    // polling thread pumps SDL
+    private Object nativeLock = this;
+    // an unplug noticed outside of update, e.g. on the render thread while polled in the background,
+    // reported by the next update
+    private volatile boolean unplugged;
+    private volatile ControllerPowerLevel powerLevel = ControllerPowerLevel.POWER_UNKNOWN;
     private boolean canVibrate = true;
-    private long vibrationEndMs;
-    private int axisCount = -1;
-    private int maxButtonIndex = -1;
+    private final RumbleScheduler rumble = new RumbleScheduler(new RumbleScheduler.Output() {
+        @Override
+        public void rumble(float strength, int durationMillis) {
+            doVibration(strength, durationMillis);
+        }
+    });
+    private final JamepadControllerDescriptor descriptor;
+    // inputs mapped for this controller, only these are polled
+    private final long availableButtons;
+    private final long availableAxes;
 
     public JamepadController(ControllerIndex controllerIndex) {
-        this.controllerIndex = controllerIndex;
+        this(new NativeJamepadDevices.Device(controllerIndex));
+    }
+
+    /**
+     * @param descriptor metadata of the controller, queried once when it is opened
+     */
+    public JamepadController(ControllerIndex controllerIndex, JamepadControllerDescriptor descriptor) {
+        this(new NativeJamepadDevices.Device(controllerIndex), descriptor);
+    }
+
+    JamepadController(JamepadDevice device) {
+        this(device, queryDescriptor(device));
+    }
+
+    JamepadController(JamepadDevice device, JamepadControllerDescriptor descriptor) {
+        this.device = device;
         this.uuid = UUID.randomUUID().toString();
-        initializeState();
+        this.descriptor = descriptor;
+        if (descriptor != null) {
+            availableButtons = descriptor.getAvailableButtons();
+            availableAxes = descriptor.getAvailableAxes();
+            powerLevel = queryPowerLevel();
+        } else {
+            availableButtons = 0;
+            availableAxes = 0;
+            // gone again before it was opened, reported by the first update
+            unplugged = true;
+        }
     }
 
-    @Override
-    public boolean getButton(final int buttonCode) {
+    private static JamepadControllerDescriptor queryDescriptor(JamepadDevice device) {
         try {
-            ControllerButton button = toButton(buttonCode);
-            return button != null && controllerIndex.isButtonPressed(button);
+            return JamepadControllerDescriptor.query(device);
         } catch (ControllerUnpluggedException e) {
-            setDisconnected();
+            return null;
         }
-        return false;
     }
 
+    /**
+     * @return button state as of the last event delivered to listeners, without native calls. Must be
+     * called on the render thread.
+     */
+    @Override
+    public boolean getButton(final int buttonCode) {
+        return buttonCode >= 0 && buttonCode < BUTTONS.length && (dispatchedButtonState & (1L << buttonCode)) != 0;
+    }
+
+    /**
+     * @return axis value as of the last event delivered to listeners, without native calls. Must be
+     * called on the render thread.
+     */
     @Override
     public float getAxis(final int axisCode) {
-        try {
-            ControllerAxis axis = toAxis(axisCode);
+        return axisCode >= 0 && axisCode < AXES.length ? dispatchedAxisState[axisCode] : 0f;
+    }
 
-            if (axis == null) {
-                return 0.0f;
-            } else {
-                return controllerIndex.getAxisState(axis);
-            }
-        } catch (ControllerUnpluggedException e) {
-            setDisconnected();
-        }
-        return 0f;
+    /**
+     * Fills the state as of the last event delivered to listeners, without native calls. Must be called
+     * on the render thread.
+     */
+    @Override
+    public void readState(ControllerState out) {
+        out.reset(BUTTONS.length - 1, AXES.length);
+        out.buttons[0] = dispatchedButtonState;
+        System.arraycopy(dispatchedAxisState, 0, out.axes, 0, AXES.length);
+        out.connected = dispatchedConnected;
     }
 
+    /**
+     * @return name queried when the controller was opened, without native calls
+     */
     @Override
     public String getName() {
-        try {
-            return controllerIndex.getName();
-        } catch (ControllerUnpluggedException e) {
-            setDisconnected();
-        }
-        return "Unknown";
+        return descriptor != null ? descriptor.getName() : "Unknown";
+    }
+
+    /**
+     * @return metadata queried when the controller was opened, null if it was unplugged before
+     */
+    public JamepadControllerDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * Unlike {@link #getUniqueId()}, which is random for every connection, this id is derived from the
+     * device and stays the same across sessions, see {@link JamepadControllerDescriptor#getStableId()}.
+     *
+     * @return stable id, null if the controller was unplugged before it was opened
+     */
+    public String getStableId() {
+        return descriptor != null ? descriptor.getStableId() : null;
     }
 
     private void setDisconnected() {
+        if (eventRing != null) {
+            unplugged = true;
+        } else {
+            reportDisconnected();
+        }
+    }
+
+    private void reportDisconnected() {
         if (connected) {
             connected = false;
-            logger.info("Failed querying controller at index: " + controllerIndex.getIndex());
-            compositeControllerListener.disconnected(this);
+            buttonState = 0;
+            for (int i = 0; i < axisState.length; i++) {
+                axisState[i] = 0;
+            }
+            logger.info("Failed querying controller at index: " + device.getIndex());
+            if (eventRing != null) {
+                eventRing.put(ControllerEventQueue.DISCONNECTED, this, 0, 0, TimeUtils.nanoTime(), ControllerEvents.nextSequence());
+            } else {
+                clearDispatchedState();
+                compositeControllerListener.disconnected(this);
+            }
+        }
+    }
+
+    /**
+     * Checks the connection without reading any inputs, used while polling is suspended
+     *
+     * @return whether the controller is still connected
+     */
+    boolean checkConnected() {
+        if (unplugged || !device.isConnected()) {
+            reportDisconnected();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Queues the events of following updates to the ring instead of notifying listeners directly. Set
+     * before the first update when the controller is polled on the background thread.
+     */
+    void setEventRing(JamepadEventRing eventRing) {
+        this.eventRing = eventRing;
+    }
+
+    /**
+     * Sets the lock the monitor holds while pumping SDL, which closes and reopens the devices. Set before
+     * the controller is handed to the render thread.
+     */
+    void setNativeLock(Object nativeLock) {
+        this.nativeLock = nativeLock;
+    }
+
+    /**
+     * Notifies the listeners about an event taken from the {@link JamepadEventRing}
+     */
+    void dispatch(int type, int code, float value, long timeNanos, long sequence) {
+        switch (type) {
+            case ControllerEventQueue.BUTTON_DOWN:
+                dispatchedButtonState |= 1L << code;
+                compositeControllerListener.buttonDown(this, code, timeNanos, sequence);
+                break;
+            case ControllerEventQueue.BUTTON_UP:
+                dispatchedButtonState &= ~(1L << code);
+                compositeControllerListener.buttonUp(this, code, timeNanos, sequence);
+                break;
+            case ControllerEventQueue.AXIS:
+                dispatchedAxisState[code] = value;
+                compositeControllerListener.axisMoved(this, code, value, timeNanos, sequence);
+                break;
+            case ControllerEventQueue.DISCONNECTED:
+                clearDispatchedState();
+                compositeControllerListener.disconnected(this);
+                break;
+            case JamepadEventRing.POWER_LEVEL:
+                compositeControllerListener.powerLevelChanged(this, POWER_LEVELS[code]);
+                break;
+        }
+    }
+
+    private void clearDispatchedState() {
+        dispatchedConnected = false;
+        dispatchedButtonState = 0;
+        for (int i = 0; i < dispatchedAxisState.length; i++) {
+            dispatchedAxisState[i] = 0;
         }
     }
 
@@ -102,61 +255,105 @@ public class JamepadController implements Controller {
     }
 
     public boolean update() {
-        updateButtonsState();
-        updateAxisState();
+        return update(TimeUtils.nanoTime());
+    }
+
+    /**
+     * Polls the controller and notifies listeners about changes. Connectivity is checked once here, so
+     * the getters only read fields and return neutral values once the controller is disconnected.
+     *
+     * @param pollTimeNanos time of the poll, passed to {@link com.badlogic.gdx.controllers.TimedControllerListener}s
+     * @return whether the controller is still connected
+     */
+    public boolean update(long pollTimeNanos) {
+        if (!checkConnected()) {
+            return false;
+        }
+
+        long pressed = 0;
+        try {
+            // every Jamepad read costs two JNI calls, so unmapped inputs that always read 0 are skipped
+            for (long buttons = availableButtons; buttons != 0; buttons &= buttons - 1) {
+                int i = Long.numberOfTrailingZeros(buttons);
+                if (device.isButtonPressed(BUTTONS[i])) {
+                    pressed |= 1L << i;
+                }
+            }
+            for (long axes = availableAxes; axes != 0; axes &= axes - 1) {
+                int i = Long.numberOfTrailingZeros(axes);
+                polledAxisState[i] = device.getAxisState(AXES[i]);
+            }
+        } catch (ControllerUnpluggedException e) {
+            // unplugged since the check above
+            reportDisconnected();
+            return false;
+        }
+
+        updateButtonsState(pressed, pollTimeNanos);
+        updateAxisState(pollTimeNanos);
         return connected;
     }
 
+    /**
+     * @return time of the last update that found a changed button or axis, or of the creation
+     */
+    public long getLastChangeTime() {
+        return lastChangeNanos;
+    }
+
     private ControllerButton toButton(int buttonCode) {
-        return CODE_TO_BUTTON.get(buttonCode);
+        return buttonCode >= 0 && buttonCode < BUTTONS.length ? BUTTONS[buttonCode] : null;
     }
 
     private ControllerAxis toAxis(int axisCode) {
-        return CODE_TO_AXIS.get(axisCode);
+        return axisCode >= 0 && axisCode < AXES.length ? AXES[axisCode] : null;
     }
 
-    private void updateAxisState() {
-        for (ControllerAxis axis : ControllerAxis.values()) {
-            int id = axis.ordinal();
-
-            float value = getAxis(id);
-            if (value != axisState.get(id)) {
+    private void updateAxisState(long pollTimeNanos) {
+        for (int id = 0; id < AXES.length; id++) {
+            float value = polledAxisState[id];
+            if (value != axisState[id]) {
+                axisState[id] = value;
+                lastChangeNanos = pollTimeNanos;
                 if (logger.getLevel() == Logger.DEBUG) {
                     logger.debug("Axis [" + id + " - " + toAxis(id) + "] moved [" + value + "]");
                 }
-                compositeControllerListener.axisMoved(this, id, value);
-            }
-            axisState.put(id, value);
-        }
-    }
-
-    private void updateButtonsState() {
-        for (ControllerButton button : ControllerButton.values()) {
-            int id = button.ordinal();
-
-            boolean pressed = getButton(id);
-            if (pressed != buttonState.get(id)) {
-                if (pressed) {
-                    compositeControllerListener.buttonDown(this, id);
+                if (eventRing != null) {
+                    eventRing.put(ControllerEventQueue.AXIS, this, id, value, pollTimeNanos, ControllerEvents.nextSequence());
                 } else {
-                    compositeControllerListener.buttonUp(this, id);
-                }
-
-                if (logger.getLevel() == Logger.DEBUG) {
-                    logger.debug("Button [" + id + " - " + toButton(id) + "] is " + (pressed ? "pressed" : "released"));
+                    dispatchedAxisState[id] = value;
+                    compositeControllerListener.axisMoved(this, id, value, pollTimeNanos, ControllerEvents.nextSequence());
                 }
             }
-            buttonState.put(id, pressed);
         }
     }
 
-    private void initializeState() {
-        for (ControllerAxis axis : ControllerAxis.values()) {
-            axisState.put(axis.ordinal(), 0.0f);
+    private void updateButtonsState(long pressed, long pollTimeNanos) {
+        long changed = pressed ^ buttonState;
+        if (changed == 0) {
+            return;
         }
+        buttonState = pressed;
+        lastChangeNanos = pollTimeNanos;
+        while (changed != 0) {
+            int id = Long.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+
+            boolean down = (pressed & (1L << id)) != 0;
+            if (eventRing != null) {
+                eventRing.put(down ? ControllerEventQueue.BUTTON_DOWN : ControllerEventQueue.BUTTON_UP, this, id,
+                        down ? 1 : 0, pollTimeNanos, ControllerEvents.nextSequence());
+            } else if (down) {
+                dispatchedButtonState |= 1L << id;
+                compositeControllerListener.buttonDown(this, id, pollTimeNanos, ControllerEvents.nextSequence());
+            } else {
+                dispatchedButtonState &= ~(1L << id);
+                compositeControllerListener.buttonUp(this, id, pollTimeNanos, ControllerEvents.nextSequence());
+            }
 
-        for (ControllerButton button : ControllerButton.values()) {
-            buttonState.put(button.ordinal(), false);
+            if (logger.getLevel() == Logger.DEBUG) {
+                logger.debug("Button [" + id + " - " + toButton(id) + "] is " + (down ? "pressed" : "released"));
+            }
         }
     }
 
@@ -167,28 +364,40 @@ public class JamepadController implements Controller {
 
     @Override
     public boolean isVibrating() {
-        return canVibrate() && TimeUtils.millis() < vibrationEndMs;
+        return canVibrate() && rumble.isPlaying();
     }
 
     @Override
     public void startVibration(int duration, float strength) {
-        try {
-            if (controllerIndex.doVibration(strength, strength, duration)) {
-                vibrationEndMs = TimeUtils.millis() + duration;
-                canVibrate = true;
-            } else {
-                canVibrate = false;
-            }
-        } catch (ControllerUnpluggedException e) {
-            setDisconnected();
+        if (!connected) {
+            return;
         }
+        rumble.play(strength, duration);
     }
 
     @Override
     public void cancelVibration() {
-        if (isVibrating()) {
-            // starting a vibration of strength 0 cancels the last one
-            startVibration(0, 0);
+        rumble.stopAll();
+    }
+
+    /**
+     * @return scheduler mixing the vibrations of this controller, for effects with priorities and
+     * envelopes
+     */
+    public RumbleScheduler getRumbleScheduler() {
+        return rumble;
+    }
+
+    private void doVibration(float strength, int duration) {
+        if (!connected) {
+            return;
+        }
+        try {
+            synchronized (nativeLock) {
+                canVibrate = device.doVibration(strength, strength, duration);
+            }
+        } catch (ControllerUnpluggedException e) {
+            setDisconnected();
         }
     }
 
@@ -204,8 +413,13 @@ public class JamepadController implements Controller {
 
     @Override
     public int getPlayerIndex() {
+        if (!connected) {
+            return PLAYER_IDX_UNSET;
+        }
         try {
-            return controllerIndex.getPlayerIndex();
+            synchronized (nativeLock) {
+                return device.getPlayerIndex();
+            }
         } catch (ControllerUnpluggedException e) {
             setDisconnected();
             return PLAYER_IDX_UNSET;
@@ -214,8 +428,13 @@ public class JamepadController implements Controller {
 
     @Override
     public void setPlayerIndex(int index) {
+        if (!connected) {
+            return;
+        }
         try {
-            controllerIndex.setPlayerIndex(index);
+            synchronized (nativeLock) {
+                device.setPlayerIndex(index);
+            }
         } catch (ControllerUnpluggedException e) {
             setDisconnected();
         }
@@ -228,43 +447,20 @@ public class JamepadController implements Controller {
 
     @Override
     public int getMaxButtonIndex() {
-        if (maxButtonIndex >= 0) {
-            return maxButtonIndex;
-        }
-
-        maxButtonIndex = CODE_TO_BUTTON.size - 1;
-        try {
-            while (maxButtonIndex > 0 && !controllerIndex.isButtonAvailable(CODE_TO_BUTTON.get(maxButtonIndex))) {
-                maxButtonIndex--;
-            }
-        } catch (ControllerUnpluggedException e) {
-            setDisconnected();
-        }
-
-        return maxButtonIndex;
+        return descriptor != null ? descriptor.getMaxButtonIndex() : 0;
     }
 
     @Override
     public int getAxisCount() {
-        if (axisCount >= 0) {
-            return axisCount;
-        }
-
-        axisCount = CODE_TO_AXIS.size;
-        try {
-            while (axisCount > 0 && !controllerIndex.isAxisAvailable(CODE_TO_AXIS.get(axisCount - 1))) {
-                axisCount--;
-            }
-        } catch (ControllerUnpluggedException e) {
-            setDisconnected();
-        }
-
-        return axisCount;
+        return descriptor != null ? descriptor.getAxisCount() : 0;
     }
 
+    /**
+     * @return connectivity found by the last {@link #update()}, without native calls
+     */
     @Override
     public boolean isConnected() {
-        return connected && controllerIndex.isConnected();
+        return connected;
     }
 
     @Override
@@ -272,10 +468,43 @@ public class JamepadController implements Controller {
         return JamepadMapping.getInstance();
     }
 
+    /**
+     * @return power level of the last {@link #refreshPowerLevel()}, without native calls
+     */
     @Override
     public ControllerPowerLevel getPowerLevel() {
+        return connected ? powerLevel : ControllerPowerLevel.POWER_UNKNOWN;
+    }
+
+    /**
+     * Reads the power level and notifies {@link com.badlogic.gdx.controllers.ControllerPowerLevelListener}s
+     * if it changed. Called by the monitor on a slow schedule, as batteries drain slowly.
+     *
+     * @return whether the power level changed
+     */
+    boolean refreshPowerLevel() {
+        if (!connected) {
+            return false;
+        }
+
+        ControllerPowerLevel level = queryPowerLevel();
+        if (level == powerLevel) {
+            return false;
+        }
+
+        powerLevel = level;
+        if (eventRing != null) {
+            eventRing.put(JamepadEventRing.POWER_LEVEL, this, level.ordinal(), 0, TimeUtils.nanoTime(),
+                    ControllerEvents.nextSequence());
+        } else {
+            compositeControllerListener.powerLevelChanged(this, level);
+        }
+        return true;
+    }
+
+    private ControllerPowerLevel queryPowerLevel() {
         try {
-            switch (controllerIndex.getPowerLevel()) {
+            switch (device.getPowerLevel()) {
                 case POWER_MAX:
                 case POWER_FULL:
                     return ControllerPowerLevel.POWER_FULL;
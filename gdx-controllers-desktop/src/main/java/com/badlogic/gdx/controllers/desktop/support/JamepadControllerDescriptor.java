@@ -0,0 +1,127 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+import com.studiohartman.jamepad.ControllerAxis;
+import com.studiohartman.jamepad.ControllerButton;
+import com.studiohartman.jamepad.ControllerIndex;
+import com.studiohartman.jamepad.ControllerUnpluggedException;
+
+/**
+ * Device metadata of a {@link JamepadController}, queried once when the controller is opened.
+ * <p>
+ * The stable id identifies the same physical setup across sessions, e.g. as key for per-device
+ * settings: it is built from the device name and its mapped buttons and axes, plus an instance number
+ * telling apart identical devices connected at the same time. Jamepad doesn't expose the SDL GUID or
+ * serial number, so two identical devices may swap ids between sessions.
+ */
+public final class JamepadControllerDescriptor {
+    private static final ControllerButton[] BUTTONS = ControllerButton.values();
+    private static final ControllerAxis[] AXES = ControllerAxis.values();
+
+    private final String name;
+    private final long availableButtons;
+    private final long availableAxes;
+    private final int instance;
+    private final String deviceKey;
+    private final String stableId;
+
+    private JamepadControllerDescriptor(String name, long availableButtons, long availableAxes, int instance) {
+        this.name = name;
+        this.availableButtons = availableButtons;
+        this.availableAxes = availableAxes;
+        this.instance = instance;
+        this.deviceKey = name + "/" + Long.toHexString(availableButtons) + "/" + Long.toHexString(availableAxes);
+        this.stableId = deviceKey + "#" + instance;
+    }
+
+    /**
+     * Queries the metadata of a connected controller
+     *
+     * @return descriptor of instance 0
+     */
+    public static JamepadControllerDescriptor query(ControllerIndex controllerIndex) throws ControllerUnpluggedException {
+        return query(new NativeJamepadDevices.Device(controllerIndex));
+    }
+
+    static JamepadControllerDescriptor query(JamepadDevice device) throws ControllerUnpluggedException {
+        long buttons = 0;
+        for (int i = 0; i < BUTTONS.length; i++) {
+            if (device.isButtonAvailable(BUTTONS[i])) {
+                buttons |= 1L << i;
+            }
+        }
+        long axes = 0;
+        for (int i = 0; i < AXES.length; i++) {
+            if (device.isAxisAvailable(AXES[i])) {
+                axes |= 1L << i;
+            }
+        }
+        String name = device.getName();
+        return new JamepadControllerDescriptor(name != null ? name : "Unknown", buttons, axes, 0);
+    }
+
+    /**
+     * @return descriptor of the same device with another instance number
+     */
+    public JamepadControllerDescriptor withInstance(int instance) {
+        return instance == this.instance ? this
+                : new JamepadControllerDescriptor(name, availableButtons, availableAxes, instance);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return bit i is set if button code i is mapped
+     */
+    public long getAvailableButtons() {
+        return availableButtons;
+    }
+
+    /**
+     * @return bit i is set if axis code i is mapped
+     */
+    public long getAvailableAxes() {
+        return availableAxes;
+    }
+
+    /**
+     * @return highest mapped button code, 0 if none is mapped
+     */
+    public int getMaxButtonIndex() {
+        return Math.max(0, 63 - Long.numberOfLeadingZeros(availableButtons));
+    }
+
+    /**
+     * @return one past the highest mapped axis code
+     */
+    public int getAxisCount() {
+        return 64 - Long.numberOfLeadingZeros(availableAxes);
+    }
+
+    /**
+     * @return number telling apart identical devices connected at the same time, starting at 0
+     */
+    public int getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return id shared by all devices with the same name and mapping
+     */
+    public String getDeviceKey() {
+        return deviceKey;
+    }
+
+    /**
+     * @return id of this device that survives restarts, see the class documentation
+     */
+    public String getStableId() {
+        return stableId;
+    }
+
+    @Override
+    public String toString() {
+        return stableId;
+    }
+}
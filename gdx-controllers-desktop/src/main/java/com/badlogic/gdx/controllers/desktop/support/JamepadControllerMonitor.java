@@ -1,72 +1,568 @@
 package com.badlogic.gdx.controllers.desktop.support;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.controllers.Controller;
+import com.badlogic.gdx.controllers.ControllerBatchListener;
+import com.badlogic.gdx.controllers.ControllerEventQueue;
 import com.badlogic.gdx.controllers.ControllerListener;
-import com.badlogic.gdx.utils.IntArray;
-import com.badlogic.gdx.utils.IntMap;
-import com.studiohartman.jamepad.ControllerIndex;
+import com.badlogic.gdx.controllers.ControllerMetrics;
+import com.badlogic.gdx.controllers.TimedControllerListener;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.studiohartman.jamepad.Configuration;
 import com.studiohartman.jamepad.ControllerManager;
+import com.studiohartman.jamepad.ControllerUnpluggedException;
+
+import java.util.concurrent.locks.LockSupport;
 
 public class JamepadControllerMonitor implements Runnable {
-    private final ControllerManager controllerManager;
+    private static final int EVENT_RING_CAPACITY = 4096;
+    // while fewer controllers are open than SDL reports, rescan this often in case one wasn't ready yet
+    private static final long RESCAN_INTERVAL_NANOS = 1000000000L;
+    private static final long POWER_LEVEL_REFRESH_NANOS = 5000000000L;
+    // while suspended, only connections are tracked, this often
+    private static final long SUSPENDED_POLL_INTERVAL_NANOS = 1000000000L;
+
+    private final JamepadDevices devices;
+    // held while SDL is pumped: Jamepad closes and reopens every device when one is added or removed,
+    // so native calls made outside of polls hold it too, see JamepadController#setNativeLock(Object)
+    private final Object nativeLock = new Object();
     private final ControllerListener listener;
-    private final IntMap<Tuple> indexToController = new IntMap<>();
+    private final Runnable afterPoll;
+    private final ControllerBatchListener batchListener;
+    private final ControllerEventQueue batch = new ControllerEventQueue();
+    private final BatchRecorder batchRecorder = new BatchRecorder();
+    private ControllerMetrics metrics;
+    // open controllers by Jamepad index, grown when a higher index connects
+    private Tuple[] slots = new Tuple[4];
+    private int connectedCount;
+    private int maxControllers = new Configuration().maxNumControllers;
+    private int lastNumControllers = -1;
+    private boolean slotFreed;
+    private long nextRescanTime;
+    private long nextPowerLevelRefreshTime;
+    private boolean maxControllersLogged;
+    private JamepadEventRing eventRing;
+    private final RingHandler ringHandler = new RingHandler();
+    private Thread pollingThread;
+    private volatile boolean polling;
+    private long idleTimeoutNanos;
+    private long idlePollIntervalNanos;
+    private ThreadAllocationCounter allocationCounter;
+    private volatile boolean coalesceAxisEvents;
+    private volatile boolean suspended;
+    private volatile boolean reconcile;
+    private long nextSuspendedPollTime;
 
     public JamepadControllerMonitor(ControllerManager controllerManager, ControllerListener listener) {
-        this.controllerManager = controllerManager;
+        this(controllerManager, listener, null);
+    }
+
+    /**
+     * @param afterPoll run after all controllers were polled, may be null
+     */
+    public JamepadControllerMonitor(ControllerManager controllerManager, ControllerListener listener, Runnable afterPoll) {
+        this(controllerManager, listener, afterPoll, null);
+    }
+
+    /**
+     * @param afterPoll     run after all controllers were polled, may be null
+     * @param batchListener receives the events of every poll at once, may be null
+     */
+    public JamepadControllerMonitor(ControllerManager controllerManager, ControllerListener listener, Runnable afterPoll,
+                                    ControllerBatchListener batchListener) {
+        this(new NativeJamepadDevices(controllerManager), listener, afterPoll, batchListener);
+    }
+
+    JamepadControllerMonitor(JamepadDevices devices, ControllerListener listener, Runnable afterPoll,
+                             ControllerBatchListener batchListener) {
+        this.devices = devices;
         this.listener = listener;
+        this.afterPoll = afterPoll;
+        this.batchListener = batchListener;
+    }
+
+    /**
+     * @param metrics receives poll and dispatch durations, may be null
+     */
+    public void setMetrics(ControllerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Measures the bytes allocated by every poll and the dispatch of its events, including the work
+     * done by listeners, and records them in the {@link #setMetrics(ControllerMetrics) metrics}. Once
+     * controllers are connected this should stay at 0, which JamepadControllerMonitorAllocationTest
+     * enforces for the monitor itself; this diagnostic also covers the listeners of a running game. Only
+     * supported on JVMs with thread allocation counters, like HotSpot.
+     *
+     * @return false if allocations can't be measured on this JVM
+     */
+    public boolean setMeasureAllocations(boolean measureAllocations) {
+        allocationCounter = measureAllocations ? ThreadAllocationCounter.create() : null;
+        return !measureAllocations || allocationCounter != null;
+    }
+
+    /**
+     * When polling on the background thread, merges the axis events of the polls since the last
+     * {@link #run()}, so listeners only receive the latest value of every axis per frame. Polling on
+     * the render thread produces at most one event per axis and frame anyway.
+     */
+    public void setCoalesceAxisEvents(boolean coalesceAxisEvents) {
+        this.coalesceAxisEvents = coalesceAxisEvents;
+    }
+
+    /**
+     * @param maxControllers the {@link Configuration#maxNumControllers} Jamepad was initialized with,
+     *                       devices beyond it are not opened
+     */
+    public void setMaxControllers(int maxControllers) {
+        this.maxControllers = maxControllers;
+    }
+
+    /**
+     * Polls controllers whose buttons and axes didn't change for a while at a lower rate. An idle
+     * controller goes back to being polled every time as soon as a poll finds a change, so only its
+     * first input after idling is delayed by up to one idle interval. Skipped polls and the polling
+     * time they saved are recorded in the {@link #setMetrics(ControllerMetrics) metrics}.
+     *
+     * @param idleTimeoutMillis  time without changes after which a controller is idle, 0 to always
+     *                           poll every controller
+     * @param idlePollsPerSecond polling rate of idle controllers
+     */
+    public void setIdlePolling(long idleTimeoutMillis, float idlePollsPerSecond) {
+        if (idleTimeoutMillis > 0 && idlePollsPerSecond <= 0)
+            throw new IllegalArgumentException("idlePollsPerSecond must be > 0: " + idlePollsPerSecond);
+
+        idlePollIntervalNanos = idleTimeoutMillis > 0 ? (long) (1000000000L / idlePollsPerSecond) : 0;
+        idleTimeoutNanos = idleTimeoutMillis * 1000000L;
+    }
+
+    /**
+     * Moves SDL event pumping and controller polling off the render thread to a daemon thread polling
+     * at the given rate. Events keep their poll timestamps and are delivered on the render thread by
+     * {@link #run()}, so listeners are still called on the render thread, but presses shorter than a
+     * frame are no longer missed. Must be called before the first {@link #run()}.
+     *
+     * @param pollsPerSecond polling rate, e.g. 1000
+     */
+    public void startPollingThread(float pollsPerSecond) {
+        if (pollsPerSecond <= 0)
+            throw new IllegalArgumentException("pollsPerSecond must be > 0: " + pollsPerSecond);
+        if (pollingThread != null)
+            throw new IllegalStateException("Polling thread already started");
+
+        useEventRing();
+        polling = true;
+        pollingThread = new Thread(new PollingLoop((long) (1000000000L / pollsPerSecond)), "Jamepad polling");
+        pollingThread.setDaemon(true);
+        pollingThread.start();
+    }
+
+    /**
+     * Stops the polling thread started by {@link #startPollingThread(float)} and waits for it to end,
+     * call before quitting SDL
+     *
+     * @return false if the thread is still running after a second, SDL must not be quit then
+     */
+    public boolean stopPollingThread() {
+        Thread thread = pollingThread;
+        if (thread == null)
+            return true;
+
+        polling = false;
+        eventRing.close();
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !thread.isAlive();
+    }
+
+    /**
+     * Queues the events of following polls to a ring drained by {@link #run()}, as with the polling
+     * thread, but leaves polling to the caller through {@link #pollToRing()}
+     */
+    void useEventRing() {
+        eventRing = new JamepadEventRing(EVENT_RING_CAPACITY);
+    }
+
+    /**
+     * Polls the controllers and publishes the events to the ring, done by the polling thread
+     */
+    void pollToRing() {
+        poll();
+        eventRing.publish();
+    }
+
+    /**
+     * @return whether controllers are polled on a background thread
+     */
+    public boolean isPollingThreadStarted() {
+        return pollingThread != null;
+    }
+
+    /**
+     * Suspends or resumes polling. While suspended, no inputs are read and no input events are
+     * generated; once per second SDL is pumped to track connections and disconnections only. The
+     * first poll after resuming reads every controller, including idle ones, so buttons released while
+     * suspended are reported released.
+     */
+    public void setSuspended(boolean suspended) {
+        if (this.suspended == suspended)
+            return;
+
+        if (!suspended)
+            reconcile = true;
+        this.suspended = suspended;
+        Thread thread = pollingThread;
+        if (!suspended && thread != null)
+            LockSupport.unpark(thread);
+    }
+
+    public boolean isSuspended() {
+        return suspended;
     }
 
     @Override
     public void run() {
-        controllerManager.update();
+        runFrame();
+        Gdx.app.postRunnable(this);
+    }
 
-        checkForNewControllers();
-        update();
+    /**
+     * Polls or drains the ring and delivers the events of one frame, without scheduling the next
+     */
+    void runFrame() {
+        if (suspended) {
+            runSuspended();
+            return;
+        }
 
-        Gdx.app.postRunnable(this);
+        ThreadAllocationCounter allocationCounter = this.allocationCounter;
+        long allocationStart = allocationCounter != null ? allocationCounter.start() : 0;
+        long runStart = TimeUtils.nanoTime();
+        int queueDepth = 0;
+        if (eventRing != null) {
+            queueDepth = eventRing.drain(ringHandler, coalesceAxisEvents);
+        } else {
+            poll();
+        }
+        if (afterPoll != null)
+            afterPoll.run();
+        notifyBatchListener();
+        if (metrics != null)
+            metrics.recordDispatch(queueDepth, TimeUtils.nanoTime() - runStart);
+        if (allocationCounter != null && metrics != null)
+            metrics.recordAllocation(allocationCounter.getAllocatedSince(allocationStart));
+    }
+
+    /**
+     * Delivers connections only, inputs don't change while suspended
+     */
+    private void runSuspended() {
+        if (eventRing != null) {
+            eventRing.drain(ringHandler);
+        } else {
+            long pollTime = TimeUtils.nanoTime();
+            if (pollTime - nextSuspendedPollTime >= 0) {
+                nextSuspendedPollTime = pollTime + SUSPENDED_POLL_INTERVAL_NANOS;
+                pollConnections(pollTime);
+            }
+        }
+        notifyBatchListener();
+    }
+
+    private void notifyBatchListener() {
+        if (!batch.isEmpty()) {
+            batchListener.eventsReceived(batch);
+            batch.clear();
+        }
+    }
+
+    private void poll() {
+        synchronized (nativeLock) {
+            devices.update();
+        }
+        long pollTime = TimeUtils.nanoTime();
+
+        if (reconcile) {
+            // idle controllers may have changed while suspended as well
+            reconcile = false;
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] != null)
+                    slots[i].pollNow = true;
+            }
+        }
+        checkForNewControllers(pollTime);
+        update(pollTime);
+        if (pollTime - nextPowerLevelRefreshTime >= 0) {
+            nextPowerLevelRefreshTime = pollTime + POWER_LEVEL_REFRESH_NANOS;
+            refreshPowerLevels();
+        }
+    }
+
+    /**
+     * Opens new controllers and detects disconnected ones without reading any inputs
+     */
+    private void pollConnections(long pollTime) {
+        synchronized (nativeLock) {
+            devices.update();
+        }
+        checkForNewControllers(pollTime);
+        for (int i = 0; i < slots.length; i++) {
+            Tuple tuple = slots[i];
+            if (tuple != null && !tuple.controller.checkConnected())
+                freeSlot(i);
+        }
+    }
+
+    private void refreshPowerLevels() {
+        for (int i = 0; i < slots.length; i++) {
+            Tuple tuple = slots[i];
+            if (tuple != null)
+                tuple.controller.refreshPowerLevel();
+        }
     }
 
-    private void checkForNewControllers() {
-        int newNumControllers = controllerManager.getNumControllers();
-        for (int i = 0; i < newNumControllers; i++) try {
-            ControllerIndex controllerIndex = controllerManager.getControllerIndex(i);
+    /**
+     * Opens newly connected controllers. Jamepad already reconnects its indices when SDL reports a
+     * device being added or removed, so the indices are only scanned when the SDL device count changed
+     * or a controller was found disconnected, instead of on every poll.
+     */
+    private void checkForNewControllers(long pollTime) {
+        int numControllers = devices.getNumControllers();
+        int scanCount = Math.min(numControllers, maxControllers);
+        if (numControllers == lastNumControllers && !slotFreed
+                && (connectedCount >= scanCount || pollTime - nextRescanTime < 0))
+            return;
+
+        lastNumControllers = numControllers;
+        slotFreed = false;
+        nextRescanTime = pollTime + RESCAN_INTERVAL_NANOS;
+        if (numControllers > maxControllers && !maxControllersLogged) {
+            maxControllersLogged = true;
+            Gdx.app.log("Jamepad", numControllers + " controllers connected, only " + maxControllers
+                    + " are used. Raise Configuration.maxNumControllers to use more.");
+        }
+
+        for (int i = 0; i < scanCount; i++) {
+            JamepadDevice device = devices.getDevice(i);
 
-            if (!indexToController.containsKey(controllerIndex.getIndex()) && controllerIndex.isConnected()) {
-                Tuple tuple1 = new Tuple(controllerIndex);
+            if (getSlot(i) == null && device.isConnected()) {
+                JamepadControllerDescriptor descriptor;
+                try {
+                    descriptor = JamepadControllerDescriptor.query(device);
+                } catch (ControllerUnpluggedException e) {
+                    // gone again, picked up by a later scan if it comes back
+                    continue;
+                }
+                Tuple tuple1 = new Tuple(device, descriptor.withInstance(getFreeInstance(descriptor)));
+                if (batchListener != null) {
+                    // added first, so events consumed by a listener are recorded as well
+                    tuple1.controller.addListener(batchRecorder);
+                }
                 tuple1.controller.addListener(listener);
+                tuple1.controller.setNativeLock(nativeLock);
+
+                setSlot(i, tuple1);
+                if (eventRing != null) {
+                    tuple1.controller.setEventRing(eventRing);
+                    eventRing.put(ControllerEventQueue.CONNECTED, tuple1.controller, 0, 0, TimeUtils.nanoTime(), 0);
+                } else {
+                    notifyConnected(tuple1.controller);
+                }
+            }
+        }
+    }
 
-                indexToController.put(controllerIndex.getIndex(), tuple1);
-                listener.connected(tuple1.controller);
+    /**
+     * @return lowest instance number not used by an open controller of the same device
+     */
+    private int getFreeInstance(JamepadControllerDescriptor descriptor) {
+        int instance = 0;
+        for (int i = 0; i < slots.length; i++) {
+            Tuple tuple = slots[i];
+            if (tuple != null && tuple.descriptor.getDeviceKey().equals(descriptor.getDeviceKey())
+                    && tuple.descriptor.getInstance() == instance) {
+                instance++;
+                // restart, an open controller with the new number may come earlier
+                i = -1;
             }
-        } catch (ArrayIndexOutOfBoundsException t) {
-            // more controllers connected than we can handle according to our config
         }
+        return instance;
+    }
+
+    private Tuple getSlot(int index) {
+        return index < slots.length ? slots[index] : null;
+    }
+
+    private void setSlot(int index, Tuple tuple) {
+        if (index >= slots.length) {
+            Tuple[] newSlots = new Tuple[Math.max(index + 1, slots.length * 2)];
+            System.arraycopy(slots, 0, newSlots, 0, slots.length);
+            slots = newSlots;
+        }
+        if (slots[index] == null)
+            connectedCount++;
+        slots[index] = tuple;
+    }
+
+    private void notifyConnected(JamepadController controller) {
+        if (batchListener != null)
+            batch.addConnected(controller);
+        listener.connected(controller);
     }
 
-    private void update() {
-        IntArray disconnectedControllers = new IntArray(indexToController.size);
-        for (Tuple tuple : indexToController.values()) {
+    private void update(long pollTime) {
+        for (int i = 0; i < slots.length; i++) {
+            Tuple tuple = slots[i];
+            if (tuple == null)
+                continue;
+
             JamepadController controller = tuple.controller;
-            boolean connected = controller.update();
+            if (!tuple.pollNow && pollTime - tuple.nextPollTime < 0) {
+                if (metrics != null)
+                    metrics.recordSkippedPoll(tuple.lastPollNanos);
+                continue;
+            }
 
-            if (!connected) {
-                disconnectedControllers.add(tuple.index.getIndex());
+            long updateStart = TimeUtils.nanoTime();
+            boolean connected = controller.update(pollTime);
+            tuple.lastPollNanos = TimeUtils.nanoTime() - updateStart;
+            // a disconnected controller was already removed from the metrics by the listeners
+            if (metrics != null && connected)
+                metrics.recordPoll(controller, tuple.lastPollNanos);
+            if (idleTimeoutNanos > 0 && pollTime - controller.getLastChangeTime() >= idleTimeoutNanos) {
+                tuple.pollNow = false;
+                tuple.nextPollTime = pollTime + idlePollIntervalNanos;
+            } else {
+                tuple.pollNow = true;
             }
+
+            if (!connected)
+                freeSlot(i);
         }
+    }
+
+    private void freeSlot(int index) {
+        slots[index] = null;
+        connectedCount--;
+        slotFreed = true;
+    }
 
-        for (int i = 0; i < disconnectedControllers.size; i++) {
-            indexToController.remove(disconnectedControllers.get(i));
+    private class BatchRecorder implements TimedControllerListener {
+        @Override
+        public void connected(Controller controller) {
+            batch.addConnected(controller);
+        }
+
+        @Override
+        public void disconnected(Controller controller) {
+            batch.addDisconnected(controller);
+        }
+
+        @Override
+        public boolean buttonDown(Controller controller, int buttonCode) {
+            batch.addButton(controller, buttonCode, true);
+            return false;
+        }
+
+        @Override
+        public boolean buttonUp(Controller controller, int buttonCode) {
+            batch.addButton(controller, buttonCode, false);
+            return false;
+        }
+
+        @Override
+        public boolean axisMoved(Controller controller, int axisCode, float value) {
+            batch.addAxis(controller, axisCode, value);
+            return false;
+        }
+
+        @Override
+        public boolean buttonDown(Controller controller, int buttonCode, long timeNanos, long sequence) {
+            batch.add(ControllerEventQueue.BUTTON_DOWN, controller, buttonCode, 1, timeNanos, sequence);
+            return false;
+        }
+
+        @Override
+        public boolean buttonUp(Controller controller, int buttonCode, long timeNanos, long sequence) {
+            batch.add(ControllerEventQueue.BUTTON_UP, controller, buttonCode, 0, timeNanos, sequence);
+            return false;
+        }
+
+        @Override
+        public boolean axisMoved(Controller controller, int axisCode, float value, long timeNanos, long sequence) {
+            batch.add(ControllerEventQueue.AXIS, controller, axisCode, value, timeNanos, sequence);
+            return false;
+        }
+    }
+
+    private class RingHandler implements JamepadEventRing.Handler {
+        @Override
+        public void event(int type, JamepadController controller, int code, float value, long timeNanos, long sequence) {
+            if (type == ControllerEventQueue.CONNECTED) {
+                notifyConnected(controller);
+            } else {
+                controller.dispatch(type, code, value, timeNanos, sequence);
+            }
+        }
+    }
+
+    private class PollingLoop implements Runnable {
+        private final long intervalNanos;
+
+        PollingLoop(long intervalNanos) {
+            this.intervalNanos = intervalNanos;
+        }
+
+        @Override
+        public void run() {
+            long next = TimeUtils.nanoTime();
+            while (polling) {
+                if (suspended) {
+                    pollConnections(TimeUtils.nanoTime());
+                    eventRing.publish();
+                    // woken early by setSuspended(false) and stopPollingThread()
+                    LockSupport.parkNanos(SUSPENDED_POLL_INTERVAL_NANOS);
+                    next = TimeUtils.nanoTime();
+                    continue;
+                }
+
+                ThreadAllocationCounter allocationCounter = JamepadControllerMonitor.this.allocationCounter;
+                long allocationStart = allocationCounter != null ? allocationCounter.start() : 0;
+                pollToRing();
+                if (allocationCounter != null && metrics != null)
+                    metrics.recordAllocation(allocationCounter.getAllocatedSince(allocationStart));
+
+                next += intervalNanos;
+                long wait = next - TimeUtils.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    // fell behind, e.g. while waiting for the render thread, don't try to catch up
+                    next = TimeUtils.nanoTime();
+                }
+            }
         }
     }
 
     private class Tuple {
-        public final ControllerIndex index;
+        public final JamepadDevice device;
         public final JamepadController controller;
+        public final JamepadControllerDescriptor descriptor;
+        // whether the controller is polled regardless of nextPollTime
+        public boolean pollNow = true;
+        // poll time before which the idle controller is not polled
+        public long nextPollTime;
+        public long lastPollNanos;
 
-        public Tuple(ControllerIndex index) {
-            this.index = index;
-            this.controller = new JamepadController(index);
+        public Tuple(JamepadDevice device, JamepadControllerDescriptor descriptor) {
+            this.device = device;
+            this.descriptor = descriptor;
+            this.controller = new JamepadController(device, descriptor);
         }
     }
 }
@@ -0,0 +1,34 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+import com.studiohartman.jamepad.ControllerAxis;
+import com.studiohartman.jamepad.ControllerButton;
+import com.studiohartman.jamepad.ControllerPowerLevel;
+import com.studiohartman.jamepad.ControllerUnpluggedException;
+
+/**
+ * The parts of Jamepad's {@link com.studiohartman.jamepad.ControllerIndex} a {@link JamepadController}
+ * uses
+ */
+interface JamepadDevice {
+    int getIndex();
+
+    boolean isConnected();
+
+    boolean isButtonAvailable(ControllerButton button) throws ControllerUnpluggedException;
+
+    boolean isAxisAvailable(ControllerAxis axis) throws ControllerUnpluggedException;
+
+    String getName() throws ControllerUnpluggedException;
+
+    boolean isButtonPressed(ControllerButton button) throws ControllerUnpluggedException;
+
+    float getAxisState(ControllerAxis axis) throws ControllerUnpluggedException;
+
+    boolean doVibration(float leftMagnitude, float rightMagnitude, int duration) throws ControllerUnpluggedException;
+
+    int getPlayerIndex() throws ControllerUnpluggedException;
+
+    void setPlayerIndex(int index) throws ControllerUnpluggedException;
+
+    ControllerPowerLevel getPowerLevel() throws ControllerUnpluggedException;
+}
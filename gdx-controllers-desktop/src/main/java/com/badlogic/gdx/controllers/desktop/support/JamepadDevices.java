@@ -0,0 +1,19 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+/**
+ * The parts of Jamepad's {@link com.studiohartman.jamepad.ControllerManager} the monitor uses, so
+ * polling and dispatch can be driven without SDL, e.g. by tests
+ */
+interface JamepadDevices {
+    /**
+     * Pumps SDL events, reconnecting devices that were added or removed
+     */
+    void update();
+
+    int getNumControllers();
+
+    /**
+     * @return the device at the given index, the same instance on every call
+     */
+    JamepadDevice getDevice(int index);
+}
@@ -0,0 +1,152 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+import com.badlogic.gdx.controllers.ControllerEventQueue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single-producer single-consumer ring of controller events, handing the events of the
+ * background polling thread to the render thread without locks. Only the polling thread may call
+ * {@link #put(int, JamepadController, int, float, long, long)} and {@link #publish()}, only the render
+ * thread may call {@link #drain(Handler)}. Events are stored in preallocated parallel arrays, so
+ * neither side allocates.
+ * <p>
+ * Added events become visible to the render thread with the next {@link #publish()}, called after
+ * each complete poll, so a drain never ends in the middle of a poll and the state built from the
+ * delivered events, like snapshots, always matches a complete poll.
+ */
+class JamepadEventRing {
+    // event type in addition to the ControllerEventQueue ones, the code is the ControllerPowerLevel ordinal
+    static final int POWER_LEVEL = 16;
+
+    private final int mask;
+    private final int[] types;
+    private final int[] codes;
+    private final float[] values;
+    private final long[] times;
+    private final long[] sequences;
+    private final JamepadController[] controllers;
+    // next position to read, written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+    // end of the published events, written by the producer only
+    private final AtomicLong tail = new AtomicLong();
+    // next position to write, only accessed by the producer
+    private long pendingTail;
+    private volatile boolean closed;
+    private volatile long fullCount;
+
+    /**
+     * @param capacity maximum number of undelivered events, rounded up to a power of two
+     */
+    JamepadEventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        types = new int[size];
+        codes = new int[size];
+        values = new float[size];
+        times = new long[size];
+        sequences = new long[size];
+        controllers = new JamepadController[size];
+    }
+
+    /**
+     * Adds an event, delivered after the next {@link #publish()}. If the ring is full because the
+     * render thread stalls, waits until it drained events instead of dropping any, so polling pauses
+     * with the render thread.
+     *
+     * @param type one of the {@link ControllerEventQueue} event types or {@link #POWER_LEVEL}
+     */
+    void put(int type, JamepadController controller, int code, float value, long timeNanos, long sequence) {
+        long position = pendingTail;
+        if (position - head.get() > mask) {
+            fullCount++;
+            // a poll filling the whole ring can't be delivered at once
+            publish();
+            while (position - head.get() > mask && !closed) {
+                LockSupport.parkNanos(100000);
+            }
+        }
+        if (closed)
+            return;
+
+        int index = (int) position & mask;
+        types[index] = type;
+        codes[index] = code;
+        values[index] = value;
+        times[index] = timeNanos;
+        sequences[index] = sequence;
+        controllers[index] = controller;
+        pendingTail = position + 1;
+    }
+
+    /**
+     * Makes the events added so far visible to {@link #drain(Handler)}
+     */
+    void publish() {
+        // publishes the slots and everything the polling thread wrote before, like the controller state
+        if (tail.get() != pendingTail)
+            tail.lazySet(pendingTail);
+    }
+
+    /**
+     * Delivers all events added so far to the handler, in order
+     *
+     * @return number of events taken from the ring
+     */
+    int drain(Handler handler) {
+        return drain(handler, false);
+    }
+
+    /**
+     * Delivers all events added so far to the handler, in order
+     *
+     * @param coalesceAxisEvents if true, an axis event is left out if a later event of the same drain
+     *                           moves the same axis of the same controller
+     * @return number of events taken from the ring, including left out ones
+     */
+    int drain(Handler handler, boolean coalesceAxisEvents) {
+        long start = head.get();
+        long end = tail.get();
+        if (coalesceAxisEvents) {
+            for (long position = start; position < end; position++) {
+                int index = (int) position & mask;
+                if (types[index] == ControllerEventQueue.AXIS)
+                    controllers[index].lastQueuedAxisPositions[codes[index]] = position;
+            }
+        }
+        for (long position = start; position < end; position++) {
+            int index = (int) position & mask;
+            JamepadController controller = controllers[index];
+            controllers[index] = null;
+            if (!coalesceAxisEvents || types[index] != ControllerEventQueue.AXIS
+                    || controller.lastQueuedAxisPositions[codes[index]] == position) {
+                handler.event(types[index], controller, codes[index], values[index], times[index], sequences[index]);
+            }
+            head.lazySet(position + 1);
+        }
+        return (int) (end - start);
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * Releases a producer waiting for room, no events are added afterwards
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * @return how often the polling thread had to wait for the render thread
+     */
+    long getFullCount() {
+        return fullCount;
+    }
+
+    interface Handler {
+        void event(int type, JamepadController controller, int code, float value, long timeNanos, long sequence);
+    }
+}
@@ -0,0 +1,108 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.SharedLibraryLoader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Picks the mapping database handed to Jamepad. The build splits gamecontrollerdb.txt into one file
+ * per platform (see the compileControllerMappings task), so SDL only parses the mappings of the
+ * running platform. The full database is used if there is no file for the platform, or if it was
+ * generated from a different database than the one on the classpath, e.g. one replaced by the game.
+ */
+public class JamepadMappingDatabase {
+    private static final String SOURCE_HASH_HEADER = "# source sha1 ";
+
+    /**
+     * @param databasePath classpath path of the full database
+     * @return classpath path of the database to load
+     */
+    public static String getMappingsPath(String databasePath) {
+        String platformPath = getPlatformPath(databasePath);
+        if (platformPath == null)
+            return databasePath;
+
+        // the system class loader doesn't see the natives jar under launchers with their own loaders
+        ClassLoader classLoader = JamepadMappingDatabase.class.getClassLoader();
+        URL database = classLoader.getResource(databasePath);
+        URL platformDatabase = classLoader.getResource(platformPath);
+        if (database == null || platformDatabase == null)
+            return databasePath;
+
+        try {
+            String sourceHash = readSourceHash(platformDatabase);
+            if (sourceHash == null || !sourceHash.equals(hash(database))) {
+                Gdx.app.log("Jamepad", platformPath + " is outdated, loading " + databasePath);
+                return databasePath;
+            }
+        } catch (IOException e) {
+            return databasePath;
+        } catch (NoSuchAlgorithmException e) {
+            return databasePath;
+        }
+        return platformPath;
+    }
+
+    private static String getPlatformPath(String databasePath) {
+        String platform;
+        if (SharedLibraryLoader.isWindows)
+            platform = "windows";
+        else if (SharedLibraryLoader.isMac)
+            platform = "macosx";
+        else if (SharedLibraryLoader.isLinux)
+            platform = "linux";
+        else
+            return null;
+
+        int extension = databasePath.lastIndexOf('.');
+        if (extension < 0)
+            return null;
+        return databasePath.substring(0, extension) + "-" + platform + databasePath.substring(extension);
+    }
+
+    /**
+     * @return SHA-1 of the database the platform file was generated from, null if unknown
+     */
+    private static String readSourceHash(URL platformDatabase) throws IOException {
+        InputStream input = platformDatabase.openStream();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, "UTF-8"), 128);
+            String header = reader.readLine();
+            if (header == null || !header.startsWith(SOURCE_HASH_HEADER))
+                return null;
+            return header.substring(SOURCE_HASH_HEADER.length()).trim();
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * @return SHA-1 of the file in lower case hex, as written by the compileControllerMappings task
+     */
+    private static String hash(URL file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        InputStream input = file.openStream();
+        try {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            input.close();
+        }
+
+        StringBuilder hex = new StringBuilder(40);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit(b >> 4 & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
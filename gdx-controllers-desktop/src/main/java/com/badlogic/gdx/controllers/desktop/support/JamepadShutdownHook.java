@@ -1,13 +1,23 @@
 package com.badlogic.gdx.controllers.desktop.support;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.LifecycleListener;
 import com.studiohartman.jamepad.ControllerManager;
 
 public class JamepadShutdownHook implements LifecycleListener {
     private final ControllerManager controllerManager;
+    private final JamepadControllerMonitor monitor;
 
     public JamepadShutdownHook(ControllerManager controllerManager) {
+        this(controllerManager, null);
+    }
+
+    /**
+     * @param monitor its polling thread is stopped before SDL is quit, may be null
+     */
+    public JamepadShutdownHook(ControllerManager controllerManager, JamepadControllerMonitor monitor) {
         this.controllerManager = controllerManager;
+        this.monitor = monitor;
     }
 
     @Override
@@ -22,6 +32,10 @@ public class JamepadShutdownHook implements LifecycleListener {
 
     @Override
     public void dispose() {
+        if (monitor != null && !monitor.stopPollingThread()) {
+            Gdx.app.error("Jamepad", "Polling thread didn't stop, SDL is left running");
+            return;
+        }
         controllerManager.quitSDLGamepad();
     }
 }
@@ -0,0 +1,111 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+import com.studiohartman.jamepad.ControllerAxis;
+import com.studiohartman.jamepad.ControllerButton;
+import com.studiohartman.jamepad.ControllerIndex;
+import com.studiohartman.jamepad.ControllerManager;
+import com.studiohartman.jamepad.ControllerPowerLevel;
+import com.studiohartman.jamepad.ControllerUnpluggedException;
+
+/**
+ * {@link JamepadDevices} backed by SDL through Jamepad
+ */
+class NativeJamepadDevices implements JamepadDevices {
+    private final ControllerManager controllerManager;
+    // wrappers by index, created once, as Jamepad keeps its ControllerIndex instances
+    private Device[] devices = new Device[4];
+
+    NativeJamepadDevices(ControllerManager controllerManager) {
+        this.controllerManager = controllerManager;
+    }
+
+    @Override
+    public void update() {
+        controllerManager.update();
+    }
+
+    @Override
+    public int getNumControllers() {
+        return controllerManager.getNumControllers();
+    }
+
+    @Override
+    public JamepadDevice getDevice(int index) {
+        if (index >= devices.length) {
+            Device[] newDevices = new Device[Math.max(index + 1, devices.length * 2)];
+            System.arraycopy(devices, 0, newDevices, 0, devices.length);
+            devices = newDevices;
+        }
+        ControllerIndex controllerIndex = controllerManager.getControllerIndex(index);
+        Device device = devices[index];
+        if (device == null || device.controllerIndex != controllerIndex) {
+            device = new Device(controllerIndex);
+            devices[index] = device;
+        }
+        return device;
+    }
+
+    static class Device implements JamepadDevice {
+        private final ControllerIndex controllerIndex;
+
+        Device(ControllerIndex controllerIndex) {
+            this.controllerIndex = controllerIndex;
+        }
+
+        @Override
+        public int getIndex() {
+            return controllerIndex.getIndex();
+        }
+
+        @Override
+        public boolean isConnected() {
+            return controllerIndex.isConnected();
+        }
+
+        @Override
+        public boolean isButtonAvailable(ControllerButton button) throws ControllerUnpluggedException {
+            return controllerIndex.isButtonAvailable(button);
+        }
+
+        @Override
+        public boolean isAxisAvailable(ControllerAxis axis) throws ControllerUnpluggedException {
+            return controllerIndex.isAxisAvailable(axis);
+        }
+
+        @Override
+        public String getName() throws ControllerUnpluggedException {
+            return controllerIndex.getName();
+        }
+
+        @Override
+        public boolean isButtonPressed(ControllerButton button) throws ControllerUnpluggedException {
+            return controllerIndex.isButtonPressed(button);
+        }
+
+        @Override
+        public float getAxisState(ControllerAxis axis) throws ControllerUnpluggedException {
+            return controllerIndex.getAxisState(axis);
+        }
+
+        @Override
+        public boolean doVibration(float leftMagnitude, float rightMagnitude, int duration)
+                throws ControllerUnpluggedException {
+            return controllerIndex.doVibration(leftMagnitude, rightMagnitude, duration);
+        }
+
+        @Override
+        public int getPlayerIndex() throws ControllerUnpluggedException {
+            return controllerIndex.getPlayerIndex();
+        }
+
+        @Override
+        public void setPlayerIndex(int index) throws ControllerUnpluggedException {
+            controllerIndex.setPlayerIndex(index);
+        }
+
+        @Override
+        public ControllerPowerLevel getPowerLevel() throws ControllerUnpluggedException {
+            return controllerIndex.getPowerLevel();
+        }
+    }
+}
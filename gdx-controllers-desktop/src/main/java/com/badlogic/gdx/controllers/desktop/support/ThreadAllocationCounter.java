@@ -0,0 +1,61 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the bytes allocated by the current thread, for JVMs with HotSpot's thread allocation
+ * counters. Older JVMs allocate a few bytes per read themselves, these are measured once and
+ * subtracted, so a section that doesn't allocate measures 0.
+ */
+class ThreadAllocationCounter {
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final long overhead;
+
+    private ThreadAllocationCounter(com.sun.management.ThreadMXBean threadBean) {
+        this.threadBean = threadBean;
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 8; i++) {
+            long start = read();
+            overhead = Math.min(overhead, read() - start);
+        }
+        this.overhead = overhead;
+    }
+
+    /**
+     * @return a counter, or null if the JVM doesn't support or has disabled allocation counting
+     */
+    static ThreadAllocationCounter create() {
+        try {
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            if (!(threadBean instanceof com.sun.management.ThreadMXBean))
+                return null;
+
+            com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (!sunThreadBean.isThreadAllocatedMemorySupported() || !sunThreadBean.isThreadAllocatedMemoryEnabled())
+                return null;
+            return new ThreadAllocationCounter(sunThreadBean);
+        } catch (Throwable t) {
+            // com.sun.management not available
+            return null;
+        }
+    }
+
+    /**
+     * @return a value to pass to {@link #getAllocatedSince(long)}
+     */
+    long start() {
+        return read();
+    }
+
+    /**
+     * @return bytes allocated by the current thread since {@link #start()} returned the given value
+     */
+    long getAllocatedSince(long start) {
+        return Math.max(0, read() - start - overhead);
+    }
+
+    private long read() {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
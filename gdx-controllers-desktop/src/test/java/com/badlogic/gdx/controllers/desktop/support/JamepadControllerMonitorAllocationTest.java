@@ -0,0 +1,252 @@
+package com.badlogic.gdx.controllers.desktop.support;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.controllers.Controller;
+import com.badlogic.gdx.controllers.ControllerAdapter;
+import com.studiohartman.jamepad.ControllerAxis;
+import com.studiohartman.jamepad.ControllerButton;
+import com.studiohartman.jamepad.ControllerPowerLevel;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives the monitor with fake devices whose inputs change on every frame and fails if polling and
+ * dispatching allocate once the controllers are connected
+ */
+public class JamepadControllerMonitorAllocationTest {
+    private static final int CONTROLLERS = 4;
+    // lets the JIT compile the frame loop, the interpreter allocates where compiled code doesn't
+    private static final int WARMUP_FRAMES = 20000;
+    private static final int FRAMES = 1000;
+    // C2 may allocate once while deoptimizing a method it compiled during warmup, so a few windows are
+    // measured. An allocation of the monitor shows in every window.
+    private static final int MAX_WINDOWS = 10;
+    private static final int BUTTON_COUNT = ControllerButton.values().length;
+
+    private static Application previousApp;
+
+    private ThreadAllocationCounter allocationCounter;
+    private FakeDevices devices;
+    private CountingListener listener;
+
+    @BeforeClass
+    public static void setUpApp() {
+        previousApp = Gdx.app;
+        // the controllers only need an app to create their rumble timer tasks
+        Gdx.app = (Application) Proxy.newProxyInstance(Application.class.getClassLoader(),
+                new Class<?>[]{Application.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return null;
+                    }
+                });
+    }
+
+    @AfterClass
+    public static void tearDownApp() {
+        Gdx.app = previousApp;
+    }
+
+    @Before
+    public void setUp() {
+        allocationCounter = ThreadAllocationCounter.create();
+        Assume.assumeNotNull(allocationCounter);
+        devices = new FakeDevices(CONTROLLERS);
+        listener = new CountingListener();
+    }
+
+    @Test
+    public void pollingOnRenderThreadDoesNotAllocate() {
+        final JamepadControllerMonitor monitor = new JamepadControllerMonitor(devices, listener, null, null);
+
+        assertFramesDoNotAllocate(new Runnable() {
+            @Override
+            public void run() {
+                devices.step();
+                monitor.runFrame();
+            }
+        });
+    }
+
+    @Test
+    public void pollingToRingDoesNotAllocate() {
+        final JamepadControllerMonitor monitor = new JamepadControllerMonitor(devices, listener, null, null);
+        monitor.useEventRing();
+        monitor.setCoalesceAxisEvents(true);
+
+        assertFramesDoNotAllocate(new Runnable() {
+            @Override
+            public void run() {
+                // several polls per frame, as with a polling thread faster than the render thread
+                devices.step();
+                monitor.pollToRing();
+                devices.step();
+                monitor.pollToRing();
+                monitor.runFrame();
+            }
+        });
+    }
+
+    private void assertFramesDoNotAllocate(Runnable frame) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame.run();
+        }
+        assertEquals(CONTROLLERS, listener.connected);
+
+        int events = listener.events;
+        long allocated = 0;
+        for (int window = 0; window < MAX_WINDOWS; window++) {
+            long allocationStart = allocationCounter.start();
+            for (int i = 0; i < FRAMES; i++) {
+                frame.run();
+            }
+            allocated = allocationCounter.getAllocatedSince(allocationStart);
+            if (allocated == 0)
+                break;
+        }
+
+        assertTrue("no events were dispatched", listener.events > events);
+        assertEquals("bytes allocated by " + FRAMES + " frames", 0, allocated);
+    }
+
+    private static class CountingListener extends ControllerAdapter {
+        int connected;
+        int events;
+
+        @Override
+        public void connected(Controller controller) {
+            connected++;
+        }
+
+        @Override
+        public boolean buttonDown(Controller controller, int buttonIndex) {
+            events++;
+            return false;
+        }
+
+        @Override
+        public boolean buttonUp(Controller controller, int buttonIndex) {
+            events++;
+            return false;
+        }
+
+        @Override
+        public boolean axisMoved(Controller controller, int axisIndex, float value) {
+            events++;
+            return false;
+        }
+    }
+
+    private static class FakeDevices implements JamepadDevices {
+        private final FakeDevice[] devices;
+        private int frame;
+
+        FakeDevices(int count) {
+            devices = new FakeDevice[count];
+            for (int i = 0; i < count; i++) {
+                devices[i] = new FakeDevice(i);
+            }
+        }
+
+        /**
+         * Presses and releases a button and moves an axis of every device
+         */
+        void step() {
+            frame++;
+            for (int i = 0; i < devices.length; i++) {
+                FakeDevice device = devices[i];
+                device.buttons = (frame & 1) != 0 ? 1L << (frame % BUTTON_COUNT) : 0;
+                device.axes[frame % device.axes.length] = (frame % 200) / 100f - 1;
+            }
+        }
+
+        @Override
+        public void update() {
+        }
+
+        @Override
+        public int getNumControllers() {
+            return devices.length;
+        }
+
+        @Override
+        public JamepadDevice getDevice(int index) {
+            return devices[index];
+        }
+    }
+
+    private static class FakeDevice implements JamepadDevice {
+        private final int index;
+        long buttons;
+        final float[] axes = new float[ControllerAxis.values().length];
+
+        FakeDevice(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public boolean isButtonAvailable(ControllerButton button) {
+            return true;
+        }
+
+        @Override
+        public boolean isAxisAvailable(ControllerAxis axis) {
+            return true;
+        }
+
+        @Override
+        public String getName() {
+            return "Fake controller";
+        }
+
+        @Override
+        public boolean isButtonPressed(ControllerButton button) {
+            return (buttons & (1L << button.ordinal())) != 0;
+        }
+
+        @Override
+        public float getAxisState(ControllerAxis axis) {
+            return axes[axis.ordinal()];
+        }
+
+        @Override
+        public boolean doVibration(float leftMagnitude, float rightMagnitude, int duration) {
+            return true;
+        }
+
+        @Override
+        public int getPlayerIndex() {
+            return index;
+        }
+
+        @Override
+        public void setPlayerIndex(int index) {
+        }
+
+        @Override
+        public ControllerPowerLevel getPowerLevel() {
+            return ControllerPowerLevel.POWER_WIRED;
+        }
+    }
+}
@@ -20,10 +20,12 @@ import com.badlogic.gdx.controllers.Controller;
 import com.badlogic.gdx.controllers.ControllerListener;
 import com.badlogic.gdx.controllers.ControllerMapping;
 import com.badlogic.gdx.controllers.ControllerPowerLevel;
+import com.badlogic.gdx.controllers.ControllerState;
+import com.badlogic.gdx.controllers.ListenerRegistry;
+import com.badlogic.gdx.controllers.RumbleScheduler;
 import com.badlogic.gdx.controllers.gwt.support.Gamepad;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntFloatMap;
-import com.badlogic.gdx.utils.TimeUtils;
 
 public class GwtController implements Controller {
 
@@ -34,9 +36,16 @@ public class GwtController implements Controller {
 	protected final IntFloatMap buttons = new IntFloatMap();
 	boolean connected = true;
 
-	private final Array<ControllerListener> listeners = new Array<ControllerListener>();
+	protected final ListenerRegistry listeners = new ListenerRegistry();
 	private final int buttonCount;
-	private long vibrationEndMs;
+	private final RumbleScheduler rumble = new RumbleScheduler(new RumbleScheduler.Output() {
+		@Override
+		public void rumble(float strength, int durationMillis) {
+			Gamepad gamepad = Gamepad.getGamepad(index);
+			if (gamepad != null)
+				gamepad.doVibrate(durationMillis, strength);
+		}
+	});
 
 	public GwtController(int index, String name) {
 		this.index = index;
@@ -74,6 +83,17 @@ public class GwtController implements Controller {
 		return axes[axisIndex];
 	}
 
+	@Override
+	public void readState(ControllerState out) {
+		out.reset(getMaxButtonIndex(), axes.length);
+		for (IntFloatMap.Entry button : buttons.entries()) {
+			if (button.value >= 0.5f)
+				out.setButton(button.key, true);
+		}
+		System.arraycopy(axes, 0, out.axes, 0, axes.length);
+		out.connected = connected;
+	}
+
 	@Override
 	public boolean canVibrate() {
 		return Gamepad.getGamepad(index).canVibrate();
@@ -81,18 +101,25 @@ public class GwtController implements Controller {
 
 	@Override
 	public boolean isVibrating() {
-		return canVibrate() && TimeUtils.millis() < vibrationEndMs;
+		return canVibrate() && rumble.isPlaying();
 	}
 
 	@Override
 	public void startVibration(int duration, float strength) {
-		Gamepad.getGamepad(index).doVibrate(duration, strength);
-		vibrationEndMs = TimeUtils.millis() + duration;
+		rumble.play(strength, duration);
 	}
 
 	@Override
 	public void cancelVibration() {
-		startVibration(0, 0);
+		rumble.stopAll();
+	}
+
+	/**
+	 * @return scheduler mixing the vibrations of this controller, for effects with priorities and
+	 * envelopes
+	 */
+	public RumbleScheduler getRumbleScheduler() {
+		return rumble;
 	}
 
 	@Override
@@ -155,10 +182,10 @@ public class GwtController implements Controller {
 
 	@Override
 	public void removeListener(ControllerListener listener) {
-		this.listeners.removeValue(listener, true);
+		this.listeners.remove(listener);
 	}
 	
 	public Array<ControllerListener> getListeners() {
-		return listeners;
+		return listeners.asArray();
 	}
 }
\ No newline at end of file
@@ -17,108 +17,167 @@
 package com.badlogic.gdx.controllers.gwt;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.LifecycleListener;
 import com.badlogic.gdx.controllers.AbstractControllerManager;
-import com.badlogic.gdx.controllers.ControllerListener;
+import com.badlogic.gdx.controllers.ControllerEventQueue;
 import com.badlogic.gdx.controllers.gwt.support.Gamepad;
 import com.badlogic.gdx.controllers.gwt.support.GamepadButton;
 import com.badlogic.gdx.controllers.gwt.support.GamepadSupport;
 import com.badlogic.gdx.controllers.gwt.support.GamepadSupportListener;
-import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.IntMap;
-import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayNumber;
 
+import java.util.concurrent.Executor;
+
 public class GwtControllers extends AbstractControllerManager implements GamepadSupportListener {
 
 	private final IntMap<GwtController> controllerMap = new IntMap<GwtController>();
-	private final Array<ControllerListener> listeners = new Array<ControllerListener>();
-	private final Array<GwtControllerEvent> eventQueue = new Array<GwtControllerEvent>();
-	private final Pool<GwtControllerEvent> eventPool = new Pool<GwtControllerEvent>() {
-		@Override
-		protected GwtControllerEvent newObject () {
-			return new GwtControllerEvent();
-		}
-	};
+	private final ControllerEventQueue eventQueue = new ControllerEventQueue();
+	private boolean dispatchScheduled;
 
 	public GwtControllers () {
 		GamepadSupport.init(this);
 		listeners.add(new ManageCurrentControllerListener());
 		setupEventQueue();
+		Gdx.app.addLifecycleListener(new LifecycleListener() {
+			@Override
+			public void pause () {
+				setLifecyclePaused(true);
+			}
+
+			@Override
+			public void resume () {
+				setLifecyclePaused(false);
+			}
+
+			@Override
+			public void dispose () {
+			}
+		});
 	}
 
+	private final Runnable dispatchEvents = new Runnable() {
+		@SuppressWarnings("synthetic-access")
+		@Override
+		public void run () {
+			synchronized (eventQueue) {
+				dispatchScheduled = false;
+				int queueDepth = eventQueue.size();
+				int n = queueDepth;
+				long dispatchStart = TimeUtils.nanoTime();
+				for (int i = 0; i < n; i++) {
+					if (i > 0 && isDispatchTimeBudgetExceeded(dispatchStart)) {
+						n = i;
+						break;
+					}
+					GwtController controller = (GwtController)eventQueue.getController(i);
+					int code = eventQueue.getCode(i);
+					float value = eventQueue.getValue(i);
+					long time = eventQueue.getTime(i);
+					long sequence = eventQueue.getSequence(i);
+					switch (eventQueue.getType(i)) {
+					case ControllerEventQueue.CONNECTED:
+						synchronized (controllers) {
+							controllers.add(controller);
+						}
+						listeners.notifyConnected(controller);
+						break;
+					case ControllerEventQueue.DISCONNECTED:
+						synchronized (controllers) {
+							controllers.removeValue(controller, true);
+						}
+						listeners.notifyDisconnected(controller);
+						controller.listeners.notifyDisconnected(controller);
+						break;
+					case ControllerEventQueue.BUTTON_DOWN:
+						controller.buttons.put(code, value);
+						listeners.notifyButtonDown(controller, code, time, sequence);
+						controller.listeners.notifyButtonDown(controller, code, time, sequence);
+						break;
+					case ControllerEventQueue.BUTTON_UP:
+						controller.buttons.remove(code, value);
+						listeners.notifyButtonUp(controller, code, time, sequence);
+						controller.listeners.notifyButtonUp(controller, code, time, sequence);
+						break;
+					case ControllerEventQueue.AXIS:
+						controller.axes[code] = value;
+						listeners.notifyAxisMoved(controller, code, value, time, sequence);
+						controller.listeners.notifyAxisMoved(controller, code, value, time, sequence);
+						break;
+					default:
+					}
+				}
+				notifyBatchListeners(eventQueue.head(n));
+				eventQueue.removeDispatched(n);
+				publishSnapshots();
+				metrics.recordDispatch(queueDepth, TimeUtils.nanoTime() - dispatchStart);
+			}
+		}
+	};
+
 	public void setupEventQueue () {
 		new Runnable() {
 			@SuppressWarnings("synthetic-access")
 			@Override
 			public void run () {
-				synchronized (eventQueue) {
-					for (GwtControllerEvent event : eventQueue) {
-						switch (event.type) {
-						case GwtControllerEvent.CONNECTED:
-							controllers.add(event.controller);
-							for (ControllerListener listener : listeners) {
-								listener.connected(event.controller);
-							}
-							break;
-						case GwtControllerEvent.DISCONNECTED:
-							controllers.removeValue(event.controller, true);
-							for (ControllerListener listener : listeners) {
-								listener.disconnected(event.controller);
-							}
-							for (ControllerListener listener : event.controller.getListeners()) {
-								listener.disconnected(event.controller);
-							}
-							break;
-						case GwtControllerEvent.BUTTON_DOWN:
-							event.controller.buttons.put(event.code, event.amount);
-							for (ControllerListener listener : listeners) {
-								if (listener.buttonDown(event.controller, event.code)) break;
-							}
-							for (ControllerListener listener : event.controller.getListeners()) {
-								if (listener.buttonDown(event.controller, event.code)) break;
-							}
-							break;
-						case GwtControllerEvent.BUTTON_UP:
-							event.controller.buttons.remove(event.code, event.amount);
-							for (ControllerListener listener : listeners) {
-								if (listener.buttonUp(event.controller, event.code)) break;
-							}
-							for (ControllerListener listener : event.controller.getListeners()) {
-								if (listener.buttonUp(event.controller, event.code)) break;
-							}
-							break;
-						case GwtControllerEvent.AXIS:
-							event.controller.axes[event.code] = event.amount;
-							for (ControllerListener listener : listeners) {
-								if (listener.axisMoved(event.controller, event.code, event.amount)) break;
-							}
-							for (ControllerListener listener : event.controller.getListeners()) {
-								if (listener.axisMoved(event.controller, event.code, event.amount)) break;
-							}
-							break;
-						default:
-						}
+				if (getDispatchExecutor() == null) {
+					dispatchEvents.run();
+				} else {
+					synchronized (eventQueue) {
+						scheduleDispatch();
 					}
-					eventPool.freeAll(eventQueue);
-					eventQueue.clear();
 				}
 				Gdx.app.postRunnable(this);
 			}
 		}.run();
 	}
 
+	/** Hands queued events to the dispatch executor, if one is set. Must be called holding the lock of the event queue. */
+	private void scheduleDispatch () {
+		Executor executor = getDispatchExecutor();
+		if (executor != null && !dispatchScheduled && !eventQueue.isEmpty()) {
+			dispatchScheduled = true;
+			executor.execute(dispatchEvents);
+		}
+	}
+
+	@Override
+	protected void suspendPolling () {
+		GamepadSupport.setSuspended(true);
+	}
+
+	@Override
+	protected void resumePolling () {
+		GamepadSupport.setSuspended(false);
+	}
+
+	@Override
+	public void setCoalesceAxisEvents (boolean coalesceAxisEvents) {
+		super.setCoalesceAxisEvents(coalesceAxisEvents);
+		eventQueue.setCoalesceAxisEvents(coalesceAxisEvents);
+	}
+
 	@Override
-	public void addListener (ControllerListener listener) {
+	public void setMaxQueuedAxisEvents (int maxQueuedAxisEvents) {
+		super.setMaxQueuedAxisEvents(maxQueuedAxisEvents);
 		synchronized (eventQueue) {
-			listeners.add(listener);
+			eventQueue.setMaxAxisEvents(maxQueuedAxisEvents);
 		}
 	}
 
 	@Override
-	public void removeListener (ControllerListener listener) {
+	public long getDroppedEventCount () {
 		synchronized (eventQueue) {
-			listeners.removeValue(listener, true);
+			return eventQueue.getDroppedCount();
+		}
+	}
+
+	@Override
+	public long getDeferredEventCount () {
+		synchronized (eventQueue) {
+			return eventQueue.getDeferredCount();
 		}
 	}
 
@@ -128,10 +187,8 @@ public class GwtControllers extends AbstractControllerManager implements Gamepad
 		GwtController controller = new GwtController(gamepad.getIndex(), gamepad.getId());
 		controllerMap.put(index, controller);
 		synchronized (eventQueue) {
-			GwtControllerEvent event = eventPool.obtain();
-			event.type = GwtControllerEvent.CONNECTED;
-			event.controller = controller;
-			eventQueue.add(event);
+			eventQueue.addConnected(controller);
+			scheduleDispatch();
 		}
 	}
 
@@ -140,11 +197,9 @@ public class GwtControllers extends AbstractControllerManager implements Gamepad
 		GwtController controller = controllerMap.remove(index);
 		if (controller != null) {
 			synchronized (eventQueue) {
-			    controller.connected = false;
-				GwtControllerEvent event = eventPool.obtain();
-				event.type = GwtControllerEvent.DISCONNECTED;
-				event.controller = controller;
-				eventQueue.add(event);
+				controller.connected = false;
+				eventQueue.addDisconnected(controller);
+				scheduleDispatch();
 			}
 		}
 	}
@@ -157,17 +212,14 @@ public class GwtControllers extends AbstractControllerManager implements Gamepad
 			// Determine what changed
 			JsArrayNumber axes = gamepad.getAxes();
 			JsArray<GamepadButton> buttons = gamepad.getButtons();
+			// gamepad timestamps are fractional milliseconds relative to performance.timeOrigin
+			long time = (long)(gamepad.getTimestamp() * 1000000);
 			synchronized (eventQueue) {
 				for (int i = 0, j = axes.length(); i < j; i++) {
 					float oldAxis = controller.getAxis(i);
 					float newAxis = (float)axes.get(i);
 					if (oldAxis != newAxis) {
-						GwtControllerEvent event = eventPool.obtain();
-						event.type = GwtControllerEvent.AXIS;
-						event.controller = controller;
-						event.code = i;
-						event.amount = newAxis;
-						eventQueue.add(event);
+						eventQueue.addAxis(controller, i, newAxis, time);
 					}
 				}
 				for (int i = 0, j = buttons.length(); i < j; i++) {
@@ -179,26 +231,12 @@ public class GwtControllers extends AbstractControllerManager implements Gamepad
 							continue;
 						}
 
-						GwtControllerEvent event = eventPool.obtain();
-						event.type = newButton >= 0.5f ? GwtControllerEvent.BUTTON_DOWN : GwtControllerEvent.BUTTON_UP;
-						event.controller = controller;
-						event.code = i;
-						event.amount = newButton;
-						eventQueue.add(event);
+						eventQueue.add(newButton >= 0.5f ? ControllerEventQueue.BUTTON_DOWN : ControllerEventQueue.BUTTON_UP,
+							controller, i, newButton, time);
 					}
 				}
+				scheduleDispatch();
 			}
 		}
 	}
-
-	@Override
-	public void clearListeners () {
-		listeners.clear();
-		listeners.add(new ManageCurrentControllerListener());
-	}
-
-	@Override
-	public Array<ControllerListener> getListeners () {
-		return listeners;
-	}
 }
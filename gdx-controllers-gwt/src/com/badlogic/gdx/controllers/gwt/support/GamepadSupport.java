@@ -43,6 +43,19 @@ public class GamepadSupport {
 	public static void stopPolling() {
 		ticker.stop();
 	}
+
+	/**
+	 * While suspended, gamepads are only checked for connections and disconnections, about once per
+	 * second, and no updates are fired. On resume, an update is fired for every gamepad, so buttons
+	 * released while suspended are reported released.
+	 */
+	public static void setSuspended(boolean suspended) {
+		ticker.setSuspended(suspended);
+	}
+
+	public static boolean isSuspended() {
+		return ticker.suspended;
+	}
 	
 	public static void pollGamepads() {
 		JsArray<Gamepad> currentGamepads = nativePollGamepads();
@@ -75,6 +88,13 @@ public class GamepadSupport {
 		}
 	}
 	
+	private static void fireAllGamepadsUpdated() {
+		for (Gamepad gamepad : gamepads.values()) {
+			fireGamepadUpdated(gamepad.getIndex());
+			gamepad.setPreviousTimestamp(gamepad.getTimestamp());
+		}
+	}
+
 	public static Gamepad getGamepad(int index) {
 		return gamepads.get(index);
 	}
@@ -136,8 +156,12 @@ public class GamepadSupport {
 	}-*/;
 	
 	private static class Ticker implements AnimationScheduler.AnimationCallback {
+		private static final double SUSPENDED_POLL_INTERVAL_MILLIS = 1000;
 		
 		private boolean ticking = false;
+		private boolean suspended = false;
+		private boolean reconcile = false;
+		private double nextSuspendedPoll;
 		
 		public void start() {
 			if (!ticking) {
@@ -149,12 +173,31 @@ public class GamepadSupport {
 		public void stop() {
 			ticking = false;
 		}
+
+		public void setSuspended(boolean suspended) {
+			if (this.suspended && !suspended) {
+				reconcile = true;
+			}
+			this.suspended = suspended;
+			nextSuspendedPoll = 0;
+		}
 		
 		@Override
 		public void execute(double timestamp) {
 			if (ticking) {
-				GamepadSupport.pollGamepads();
-				GamepadSupport.pollGamepadsStatus();
+				if (suspended) {
+					if (timestamp >= nextSuspendedPoll) {
+						nextSuspendedPoll = timestamp + SUSPENDED_POLL_INTERVAL_MILLIS;
+						GamepadSupport.pollGamepads();
+					}
+				} else if (reconcile) {
+					reconcile = false;
+					GamepadSupport.pollGamepads();
+					GamepadSupport.fireAllGamepadsUpdated();
+				} else {
+					GamepadSupport.pollGamepads();
+					GamepadSupport.pollGamepadsStatus();
+				}
 				AnimationScheduler.get().requestAnimationFrame(this);
 			}
 		}
@@ -46,7 +46,12 @@ public class IosController extends AbstractController {
 
     private CHHapticEngine hapticEngine;
     private CHHapticPatternPlayer playingHapticPattern;
-    private long vibrationEndMs;
+    private final RumbleScheduler rumble = new RumbleScheduler(new RumbleScheduler.Output() {
+        @Override
+        public void rumble(float strength, int durationMillis) {
+            playRumble(strength, durationMillis);
+        }
+    });
 
     public IosController(GCController controller) {
         this.controller = controller;
@@ -90,6 +95,7 @@ public class IosController extends AbstractController {
     @Override
     public void dispose() {
         super.dispose();
+        rumble.clear();
 
         controller.setControllerPausedHandler(null);
         if (controller.getExtendedGamepad() != null)
@@ -104,12 +110,18 @@ public class IosController extends AbstractController {
     }
 
     protected void onPauseButtonPressed() {
+        if (isInputSuspended())
+            return;
+
         lastPausePressedMs = TimeUtils.millis();
         notifyListenersButtonDown(BUTTON_PAUSE);
         notifyListenersButtonUp(BUTTON_PAUSE);
     }
 
     protected void onControllerValueChanged(GCControllerElement gcControllerElement) {
+        if (isInputSuspended())
+            return;
+
         if (gcControllerElement instanceof GCControllerButtonInput) {
             GCControllerButtonInput buttonElement = (GCControllerButtonInput) gcControllerElement;
             boolean pressed = buttonElement.isPressed();
@@ -146,6 +158,37 @@ public class IosController extends AbstractController {
         }
     }
 
+    private boolean isInputSuspended() {
+        AbstractControllerManager manager = Controllers.getAbstractManager();
+        return manager != null && manager.isSuspended();
+    }
+
+    /**
+     * Reads all buttons and axes once and reports the changes missed while input handling was
+     * suspended, e.g. buttons released in the meantime
+     */
+    void reconcile() {
+        for (int buttonNum = 0; buttonNum < pressedButtons.length; buttonNum++) {
+            GCControllerButtonInput button = getButtonFromConst(buttonNum);
+            boolean pressed = button != null && button.isPressed();
+            if (pressedButtons[buttonNum] != pressed) {
+                pressedButtons[buttonNum] = pressed;
+                if (pressed)
+                    notifyListenersButtonDown(buttonNum);
+                else
+                    notifyListenersButtonUp(buttonNum);
+            }
+        }
+
+        for (int axisIdx = 0; axisIdx < axisValues.length; axisIdx++) {
+            float axisValue = getAxis(axisIdx);
+            if (axisValue != axisValues[axisIdx]) {
+                axisValues[axisIdx] = axisValue;
+                notifyListenersAxisMoved(axisIdx, axisValue);
+            }
+        }
+    }
+
     /**
      * @return constant from button, following W3C recommendations. -1 if not found
      */
@@ -272,6 +315,23 @@ public class IosController extends AbstractController {
         return null;
     }
 
+    /**
+     * Fills the state from the values tracked by the value changed handlers, without querying the
+     * GCController elements.
+     */
+    @Override
+    public void readState(ControllerState out) {
+        out.reset(getMaxButtonIndex(), axisValues.length);
+        for (int i = 0; i < pressedButtons.length; i++) {
+            if (pressedButtons[i])
+                out.setButton(i, true);
+        }
+        if (lastPausePressedMs > 0 && (TimeUtils.millis() - lastPausePressedMs) <= 250)
+            out.setButton(BUTTON_PAUSE, true);
+        System.arraycopy(axisValues, 0, out.axes, 0, axisValues.length);
+        out.connected = isConnected();
+    }
+
     @Override
     public int getMinButtonIndex() {
         return 0;
@@ -379,29 +439,41 @@ public class IosController extends AbstractController {
 
     @Override
     public void startVibration(int duration, float strength) {
-        if (canVibrate()) {
-            try {
-                hapticEngine.start(null);
-                playingHapticPattern = hapticEngine.createPlayer(constructRumbleEvent((float) duration / 1000, strength));
-                playingHapticPattern.start(0, null);
-                vibrationEndMs = TimeUtils.millis() + duration;
-            } catch (Throwable t) {
-                Gdx.app.error("Controllers", "Vibration failed", t);
-            }
-        }
+        if (canVibrate())
+            rumble.play(strength, duration);
     }
 
     @Override
     public boolean isVibrating() {
-        return canVibrate() && TimeUtils.millis() < vibrationEndMs && playingHapticPattern != null;
+        return canVibrate() && rumble.isPlaying();
     }
 
     @Override
     public void cancelVibration() {
-        if (isVibrating()) {
-            playingHapticPattern.cancelAndReturnError(null);
-            playingHapticPattern = null;
-            vibrationEndMs = 0;
+        rumble.stopAll();
+    }
+
+    /**
+     * @return scheduler mixing the vibrations of this controller, for effects with priorities and envelopes
+     */
+    public RumbleScheduler getRumbleScheduler() {
+        return rumble;
+    }
+
+    private void playRumble(float strength, int duration) {
+        try {
+            // each command replaces the pattern of the last one
+            if (playingHapticPattern != null) {
+                playingHapticPattern.cancelAndReturnError(null);
+                playingHapticPattern = null;
+            }
+            if (strength > 0) {
+                hapticEngine.start(null);
+                playingHapticPattern = hapticEngine.createPlayer(constructRumbleEvent((float) duration / 1000, strength));
+                playingHapticPattern.start(0, null);
+            }
+        } catch (Throwable t) {
+            Gdx.app.error("Controllers", "Vibration failed", t);
         }
     }
 
@@ -411,20 +483,11 @@ public class IosController extends AbstractController {
     }
 
     @Override
-    public ControllerPowerLevel getPowerLevel() {
+    protected ControllerPowerLevel queryPowerLevel() {
         if (Foundation.getMajorSystemVersion() >= 14) {
             switch (controller.getBattery().getBatteryState()) {
                 case Discharging:
-                    float batteryLevel = controller.getBattery().getBatteryLevel();
-                    if (batteryLevel <= 0.05f) {
-                        return ControllerPowerLevel.POWER_EMPTY;
-                    } else if (batteryLevel <= 0.20f) {
-                        return ControllerPowerLevel.POWER_LOW;
-                    } else if (batteryLevel <= 0.70f) {
-                        return ControllerPowerLevel.POWER_MEDIUM;
-                    } else {
-                        return ControllerPowerLevel.POWER_FULL;
-                    }
+                    return ControllerPowerLevel.fromCharge(controller.getBattery().getBatteryLevel());
                 case Charging:
                     return ControllerPowerLevel.POWER_WIRED;
                 case Full:
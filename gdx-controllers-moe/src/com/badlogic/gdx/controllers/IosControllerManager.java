@@ -9,17 +9,35 @@ import apple.uikit.UIViewController;
 import apple.uikit.enums.UIKeyModifierFlags;
 import apple.usernotifications.c.UserNotifications;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.LifecycleListener;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Timer;
 import org.moe.natj.objc.SEL;
 import org.moe.natj.objc.ann.Selector;
 
 public class IosControllerManager extends AbstractControllerManager {
-	private final Array<ControllerListener> listeners = new Array<>();
+	private static final float POWER_LEVEL_REFRESH_SECONDS = 5;
+
 	private boolean initialized = false;
 	private ICadeController iCadeController;
 
 	public IosControllerManager() {
 		listeners.add(new ManageCurrentControllerListener());
+		Gdx.app.addLifecycleListener(new LifecycleListener() {
+			@Override
+			public void pause() {
+				setLifecyclePaused(true);
+			}
+
+			@Override
+			public void resume() {
+				setLifecyclePaused(false);
+			}
+
+			@Override
+			public void dispose() {
+			}
+		});
 	}
 
 	public static void enableICade(UIViewController controller, SEL action) {
@@ -47,10 +65,8 @@ public class IosControllerManager extends AbstractControllerManager {
 			iCadeController = new ICadeController();
 			controllers.add(iCadeController);
 
-			synchronized (listeners) {
-				for (ControllerListener listener : listeners)
-					listener.connected(iCadeController);
-			}
+			listeners.notifyConnected(iCadeController);
+			requestSnapshotPublish();
 		}
 
 		iCadeController.handleKeyPressed(sender.input());
@@ -86,6 +102,14 @@ public class IosControllerManager extends AbstractControllerManager {
 			NSNotificationCenter.defaultCenter().addObserverSelectorNameObject(this, new SEL("onControllerConnect"), "GCControllerDidConnectNotification", null);
 
 			NSNotificationCenter.defaultCenter().addObserverSelectorNameObject(this, new SEL("onControllerDisconnect"), "GCControllerDidDisconnectNotification", null);
+
+			// batteries drain slowly, no need to query them every frame
+			Timer.schedule(new Timer.Task() {
+				@Override
+				public void run() {
+					refreshPowerLevels();
+				}
+			}, 0, POWER_LEVEL_REFRESH_SECONDS);
 		}
 	}
 
@@ -106,10 +130,19 @@ public class IosControllerManager extends AbstractControllerManager {
 			IosController iosController = new IosController(gcController);
 			controllers.add(iosController);
 
-			synchronized (listeners) {
-				for (ControllerListener listener : listeners)
-					listener.connected(iosController);
-			}
+			listeners.notifyConnected(iosController);
+			requestSnapshotPublish();
+		}
+	}
+
+	private void refreshPowerLevels() {
+		if (isSuspended())
+			return;
+
+		for (int i = 0; i < controllers.size; i++) {
+			Controller controller = controllers.get(i);
+			if (controller instanceof AbstractController)
+				((AbstractController) controller).refreshPowerLevel();
 		}
 	}
 
@@ -125,43 +158,29 @@ public class IosControllerManager extends AbstractControllerManager {
 		if (oldReference != null) {
 			controllers.removeValue(oldReference, true);
 
-			synchronized (listeners) {
-				for (ControllerListener listener : listeners)
-					listener.disconnected(oldReference);
-			}
+			listeners.notifyDisconnected(oldReference);
+			requestSnapshotPublish();
 
 			oldReference.dispose();
 		}
 	}
 
+	/**
+	 * Value changes are ignored while suspended, so the controllers are read once to catch up
+	 */
 	@Override
-	public void addListener(ControllerListener controllerListener) {
-		initializeControllerArray();
-
-		synchronized (listeners) {
-			if (!listeners.contains(controllerListener, true))
-				listeners.add(controllerListener);
-		}
-	}
-
-	@Override
-	public void removeListener(ControllerListener controllerListener) {
-		synchronized (listeners) {
-			listeners.removeValue(controllerListener, true);
+	protected void resumePolling() {
+		for (int i = 0; i < controllers.size; i++) {
+			Controller controller = controllers.get(i);
+			if (controller instanceof IosController)
+				((IosController) controller).reconcile();
 		}
 	}
 
 	@Override
-	public Array<ControllerListener> getListeners() {
-		return listeners;
-	}
-
-	@Override
-	public void clearListeners() {
-		synchronized (listeners) {
-			listeners.clear();
-			listeners.add(new ManageCurrentControllerListener());
-		}
+	public void addListener(ControllerListener controllerListener) {
+		initializeControllerArray();
+		super.addListener(controllerListener);
 	}
 }
 